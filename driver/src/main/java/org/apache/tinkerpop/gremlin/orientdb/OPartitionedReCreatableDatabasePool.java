@@ -3,6 +3,10 @@ package org.apache.tinkerpop.gremlin.orientdb;
 import com.orientechnologies.orient.core.db.OPartitionedDatabasePool;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class OPartitionedReCreatableDatabasePool {
     private OPartitionedDatabasePool pool;
     private final String url;
@@ -11,6 +15,7 @@ public class OPartitionedReCreatableDatabasePool {
     private final int maxSize;
     private final boolean autoCreate;
     private final int maxPartitionSize;
+    private ExecutorService executor;
 
     @Deprecated
     public OPartitionedReCreatableDatabasePool(String url, String userName, String password, int maxSize, boolean autoCreate) {
@@ -28,7 +33,8 @@ public class OPartitionedReCreatableDatabasePool {
     }
 
     public void reCreatePool() {
-        close();
+        if (this.pool != null)
+            this.pool.close();
         this.pool = new OPartitionedDatabasePool(this.url, this.userName, this.password, this.maxPartitionSize, this.maxSize).setAutoCreate(this.autoCreate);
     }
 
@@ -37,6 +43,30 @@ public class OPartitionedReCreatableDatabasePool {
             this.pool.close();
 
         this.pool = null;
+
+        synchronized (this) {
+            if (this.executor != null)
+                this.executor.shutdown();
+            this.executor = null;
+        }
+    }
+
+    /**
+     * @return the executor for the tasks which run on their own connection
+     *         from this pool, with at most one thread per connection and per
+     *         processor. It's shut down when the pool is closed.
+     */
+    public synchronized ExecutorService executor() {
+        if (this.executor == null) {
+            final int threads = Math.max(1, Math.min(this.maxSize, Runtime.getRuntime().availableProcessors()));
+            final AtomicInteger threadCount = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(threads, task -> {
+                Thread thread = new Thread(task, "orientdb-gremlin-pool-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return this.executor;
     }
 
     public ODatabaseDocumentTx acquire() {
@@ -3,17 +3,24 @@ package org.apache.tinkerpop.gremlin.orientdb;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.db.record.ORecordElement;
 import com.orientechnologies.orient.core.db.record.ridbag.ORidBag;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.Property;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -36,8 +43,13 @@ public final class OrientEdge extends OrientElement implements Edge {
         this(graph, createRawElement(graph, label), out, in, iLabel);
     }
 
+    /**
+     * Creates a lightweight edge: there's no edge record, the vertices link
+     * to each other directly. The id is made up of the ids of the vertices
+     * and the label.
+     */
     public OrientEdge(OrientGraph graph, final OIdentifiable out, final OIdentifiable in, final String iLabel) {
-        this(graph, (OIdentifiable) null, out, in, iLabel);
+        this(graph, new LightweightId(out.getIdentity(), in.getIdentity(), iLabel), out, in, iLabel);
     }
 
     public OrientEdge(OrientGraph graph, ODocument rawDocument, String label) {
@@ -48,8 +60,13 @@ public final class OrientEdge extends OrientElement implements Edge {
         this(graph, rawDocument, rawDocument.getClassName());
     }
 
+    /**
+     * Creates an edge which only holds the id of its record. The record is
+     * loaded once a property or an endpoint of the edge is needed; the label
+     * is looked up by the cluster of the id.
+     */
     public OrientEdge(final OrientGraph graph, final OIdentifiable rawElement) {
-        this(graph, (rawElement instanceof ODocument) ? ((ODocument) rawElement) : new ODocument(rawElement.getIdentity()));
+        super(graph, rawElement);
     }
 
     public static OIdentifiable getConnection(final ODocument iEdgeRecord, final Direction iDirection) {
@@ -61,22 +78,56 @@ public final class OrientEdge extends OrientElement implements Edge {
         return new ODocument(className);
     }
 
+    /**
+     * @return true if the edge has no record of its own, see
+     *         {@link OrientGraph#CONFIG_LIGHTWEIGHT_EDGE_LABELS}
+     */
+    public boolean isLightweight() {
+        return rawElement instanceof LightweightId;
+    }
+
+    @Override
+    public String label() {
+        return isLightweight() ? OrientGraphUtils.decodeClassName(label) : super.label();
+    }
+
+    @Override
+    public <V> Property<V> property(final String key, final V value) {
+        if (isLightweight())
+            throw Element.Exceptions.propertyAdditionNotSupported();
+        return super.property(key, value);
+    }
+
+    @Override
+    public void property(Object... keyValues) {
+        if (isLightweight() && keyValues.length > 0)
+            throw Element.Exceptions.propertyAdditionNotSupported();
+        super.property(keyValues);
+    }
+
     @Override
     public Iterator<Vertex> vertices(Direction direction) {
         switch (direction) {
         case OUT:
-            return graph.vertices(vOut.getIdentity());
+            return graph.vertices(getOutVertex().getIdentity());
         case IN:
-            return graph.vertices(vIn.getIdentity());
+            return graph.vertices(getInVertex().getIdentity());
         case BOTH:
         default:
-            return graph.vertices(vOut.getIdentity(), vIn.getIdentity());
+            return graph.vertices(getOutVertex().getIdentity(), getInVertex().getIdentity());
         }
     }
 
+    @SuppressWarnings("unchecked")
     public <V> Iterator<Property<V>> properties(final String... propertyKeys) {
-        Iterator<? extends Property<V>> properties = super.properties(propertyKeys);
-        return StreamUtils.asStream(properties).filter(p -> !INTERNAL_FIELDS.contains(p.key())).map(p -> (Property<V>) p).iterator();
+        if (isLightweight())
+            return Collections.emptyIterator();
+        return (Iterator<Property<V>>) super.<V> properties(propertyKeys);
+    }
+
+    @Override
+    protected boolean isInternalField(String fieldName) {
+        return INTERNAL_FIELDS.contains(fieldName);
     }
 
     public OrientVertex getVertex(final Direction direction) {
@@ -89,19 +140,26 @@ public final class OrientEdge extends OrientElement implements Edge {
     }
 
     public void remove() {
+        if (isLightweight()) {
+            // the vertices link to each other
+            removeLink(Direction.IN, vOut);
+            removeLink(Direction.OUT, vIn);
+            return;
+        }
+
         ODocument doc = getRawDocument();
         if (doc.getInternalStatus() == ORecordElement.STATUS.NOT_LOADED) {
             doc.load();
         }
 
-        removeLink(Direction.IN);
-        removeLink(Direction.OUT);
+        removeLink(Direction.IN, this.getRawElement());
+        removeLink(Direction.OUT, this.getRawElement());
         doc.getDatabase().delete(doc.getIdentity());
     }
 
     @SuppressWarnings("unchecked")
-    private void removeLink(Direction direction) {
-        final String fieldName = OrientVertex.getConnectionFieldName(direction, this.label());
+    private void removeLink(Direction direction, OIdentifiable link) {
+        final String fieldName = OrientVertex.getConnectionFieldName(direction, isLightweight() ? this.label : this.label());
         ODocument doc = this.getVertex(direction).getRawDocument();
         Object found = doc.field(fieldName);
         if (found == null)
@@ -110,10 +168,10 @@ public final class OrientEdge extends OrientElement implements Edge {
 
         if (found instanceof ORidBag) {
             ORidBag bag = (ORidBag) found;
-            bag.remove(this.getRawElement());
+            bag.remove(link);
             if (bag.size() == 0) doc.removeField(fieldName);
         } else if (found instanceof Collection<?>) {
-            ((Collection<Object>) found).remove(this.getRawElement());
+            ((Collection<Object>) found).remove(link);
             if (((Collection<Object>) found).size() == 0) doc.removeField(fieldName);
         } else
             throw new IllegalStateException("Relationship content is invalid on field " + fieldName + ". Found: " + found);
@@ -122,7 +180,7 @@ public final class OrientEdge extends OrientElement implements Edge {
 
     public OIdentifiable getOutVertex() {
         if (vOut != null)
-            // LIGHTWEIGHT EDGE
+            // LIGHTWEIGHT EDGE OR ALREADY KNOWN
             return vOut;
 
         final ODocument doc = getRawDocument();
@@ -137,7 +195,7 @@ public final class OrientEdge extends OrientElement implements Edge {
      */
     public OIdentifiable getInVertex() {
         if (vIn != null)
-            // LIGHTWEIGHT EDGE
+            // LIGHTWEIGHT EDGE OR ALREADY KNOWN
             return vIn;
 
         final ODocument doc = getRawDocument();
@@ -152,4 +210,85 @@ public final class OrientEdge extends OrientElement implements Edge {
         return StringFactory.edgeString(this);
     }
 
+    /**
+     * Id of a lightweight edge. It isn't a valid record id, it's made up of
+     * the ids of the vertices and the label, so that the edge can be looked
+     * up by it (see {@link OrientGraph#edges(Object...)}), also in its string
+     * form <code>out-label-&gt;in</code>. It's serialized in that form as well
+     * (see {@link OrientIoRegistry}).
+     * <p>
+     * Its cluster id {@link #CLUSTER_ID} isn't used by any record, not even
+     * by new ones (<code>#-1:-n</code>), so that no record id equals it.
+     */
+    public static final class LightweightId extends ORecordId {
+        private static final long serialVersionUID = -1538266096227306843L;
+        public static final int CLUSTER_ID = -2;
+        // the encoded label can't contain '>'
+        private static final Pattern PATTERN = Pattern.compile("(#-?\\d+:-?\\d+)-(.+)->(#-?\\d+:-?\\d+)");
+
+        private final ORID out;
+        private final ORID in;
+        private final String label;
+
+        public LightweightId(ORID out, ORID in, String label) {
+            super(CLUSTER_ID, Objects.hash(out, in, label));
+            this.out = out;
+            this.in = in;
+            this.label = label;
+        }
+
+        /**
+         * @return the id of the given string form, or null if it isn't the id
+         *         of a lightweight edge
+         */
+        public static LightweightId parse(String id) {
+            Matcher matcher = PATTERN.matcher(id);
+            if (!matcher.matches())
+                return null;
+            return new LightweightId(new ORecordId(matcher.group(1)), new ORecordId(matcher.group(3)), matcher.group(2));
+        }
+
+        public ORID getOut() {
+            return out;
+        }
+
+        public ORID getIn() {
+            return in;
+        }
+
+        /** @return the label, encoded like the class names */
+        public String getLabel() {
+            return label;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other)
+                return true;
+            if (!(other instanceof LightweightId))
+                return false;
+            LightweightId id = (LightweightId) other;
+            return out.equals(id.out) && in.equals(id.in) && label.equals(id.label);
+        }
+
+        @Override
+        public int hashCode() {
+            // the same as the one of ORecordId, as the position is the hash
+            return super.hashCode();
+        }
+
+        @Override
+        public int compareTo(OIdentifiable other) {
+            final int cmp = super.compareTo(other);
+            if (cmp != 0 || !(other instanceof LightweightId))
+                return cmp;
+            return toString().compareTo(other.toString());
+        }
+
+        @Override
+        public String toString() {
+            return out + "-" + label + "->" + in;
+        }
+    }
+
 }
@@ -1,19 +1,21 @@
 package org.apache.tinkerpop.gremlin.orientdb;
 
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.db.record.ORecordElement;
 import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 
 import org.apache.tinkerpop.gremlin.structure.*;
 import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import java.util.Arrays;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
-import java.util.Map;
-import java.util.stream.Stream;
+import java.util.List;
 
 public abstract class OrientElement implements Element {
 
@@ -32,12 +34,27 @@ public abstract class OrientElement implements Element {
     }
 
     public String label() {
-        String internalClassName = getRawDocument().getClassName();
+        String internalClassName = getClassName();
         // User labels on edges/vertices are prepended with E_ or V_ . The user
         // should not see that.
         return graph.classNameToLabel(internalClassName);
     }
 
+    /**
+     * @return the class of the record. For a stored record that isn't loaded
+     *         yet it's looked up by the cluster of its id, without loading it.
+     */
+    protected String getClassName() {
+        final ORID id = rawElement.getIdentity();
+        final boolean loaded = rawElement instanceof ODocument && ((ODocument) rawElement).getInternalStatus() != ORecordElement.STATUS.NOT_LOADED;
+        if (!loaded && id.isPersistent()) {
+            final OClass cls = graph.database().getMetadata().getImmutableSchemaSnapshot().getClassByClusterId(id.getClusterId());
+            if (cls != null)
+                return cls.getName();
+        }
+        return getRawDocument().getClassName();
+    }
+
     public Graph graph() {
         return graph;
     }
@@ -79,26 +96,80 @@ public abstract class OrientElement implements Element {
         getRawDocument().save();
     }
 
+    /**
+     * Only the requested fields are read from the record, so that the other
+     * fields (e.g. large edge bags) aren't deserialized. Without keys, all
+     * the fields except the internal ones are returned.
+     */
     public <V> Iterator<? extends Property<V>> properties(final String... propertyKeys) {
-        ODocument record = rawElement.getRecord();
+        final ODocument record = getRecord();
         if (record == null)
-            record = new ODocument();
+            return Collections.emptyIterator();
 
-        Map<String, Object> properties = record.toMap();
-        HashSet<String> keys = new HashSet<>(Arrays.asList(propertyKeys));
+        if (propertyKeys.length == 1) {
+            // a single key, e.g. values("name")
+            final Property<V> property = readProperty(record, propertyKeys[0]);
+            return property == null ? Collections.emptyIterator() : IteratorUtils.of(property);
+        }
 
-        Stream<Map.Entry<String, Object>> entries = StreamUtils.asStream(properties.entrySet().iterator());
-        if (keys.size() > 0) {
-            entries = entries.filter(entry -> keys.contains(entry.getKey()));
+        final String[] fieldNames = propertyKeys.length > 0 ? propertyKeys : record.fieldNames();
+        final List<Property<V>> properties = new ArrayList<>(fieldNames.length);
+        for (int i = 0; i < fieldNames.length; i++) {
+            if (propertyKeys.length > 0 && isDuplicate(propertyKeys, i))
+                continue;
+            final Property<V> property = readProperty(record, fieldNames[i]);
+            if (property != null)
+                properties.add(property);
         }
+        return properties.iterator();
+    }
+
+    /**
+     * @return true if the key at the index was already requested before
+     */
+    static boolean isDuplicate(final String[] keys, final int index) {
+        for (int i = 0; i < index; i++)
+            if (keys[i].equals(keys[index]))
+                return true;
+        return false;
+    }
 
-        @SuppressWarnings("unchecked")
-        Stream<OrientProperty<V>> propertyStream = entries.map(entry -> new OrientProperty<>(entry.getKey(), (V) entry.getValue(), this));
-        return propertyStream.iterator();
+    @SuppressWarnings("unchecked")
+    private <V> Property<V> readProperty(final ODocument record, final String key) {
+        if (isInternalField(key) || !record.containsField(key))
+            return null;
+        // field() converts the value to the type of the schema property and
+        // loads linked records, as the record itself does
+        return createProperty(key, (V) record.field(key));
+    }
+
+    /**
+     * @return the record, loaded once and kept for the next property
+     *         accesses, or null if it doesn't exist (anymore)
+     */
+    private ODocument getRecord() {
+        if (rawElement instanceof ODocument)
+            return (ODocument) rawElement;
+        final ODocument record = rawElement.getRecord();
+        if (record != null)
+            rawElement = record;
+        return record;
+    }
+
+    protected <V> Property<V> createProperty(final String key, final V value) {
+        return new OrientProperty<>(key, value, this);
+    }
+
+    /**
+     * @return true if the field of the record is used by OrientDB or this
+     *         graph implementation, so it's not a property
+     */
+    protected boolean isInternalField(String fieldName) {
+        return fieldName.startsWith("@");
     }
 
     public void save() {
-        ((ODocument) rawElement).save();
+        getRawDocument().save();
     }
 
     public ODocument getRawDocument() {
@@ -1,29 +1,43 @@
 package org.apache.tinkerpop.gremlin.orientdb;
 
+import com.google.common.collect.Lists;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.common.util.OCallable;
+import com.orientechnologies.common.util.OPair;
 import com.orientechnologies.orient.core.command.OCommandRequest;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.index.OCompositeKey;
 import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.index.OIndexCursor;
 import com.orientechnologies.orient.core.index.OIndexManager;
 import com.orientechnologies.orient.core.index.OPropertyIndexDefinition;
 import com.orientechnologies.orient.core.iterator.ORecordIteratorClass;
+import com.orientechnologies.orient.core.iterator.ORecordIteratorCluster;
 import com.orientechnologies.orient.core.metadata.schema.*;
 import com.orientechnologies.orient.core.record.ORecord;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.record.impl.ODocumentInternal;
 import com.orientechnologies.orient.core.sql.OCommandSQL;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
 import com.orientechnologies.orient.core.storage.OStorage;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.lang.NotImplementedException;
+import org.apache.tinkerpop.gremlin.orientdb.traversal.strategy.optimization.OrientBatchVertexStepStrategy;
+import org.apache.tinkerpop.gremlin.orientdb.traversal.strategy.optimization.OrientGraphCountStrategy;
+import org.apache.tinkerpop.gremlin.orientdb.traversal.strategy.optimization.OrientGraphGroupCountStrategy;
+import org.apache.tinkerpop.gremlin.orientdb.traversal.strategy.optimization.OrientGraphIndexValuesStrategy;
+import org.apache.tinkerpop.gremlin.orientdb.traversal.strategy.optimization.OrientGraphOrderStrategy;
 import org.apache.tinkerpop.gremlin.orientdb.traversal.strategy.optimization.OrientGraphStepStrategy;
+import org.apache.tinkerpop.gremlin.orientdb.traversal.strategy.optimization.OrientVertexDegreeStrategy;
+import org.apache.tinkerpop.gremlin.orientdb.traversal.strategy.optimization.OrientVertexStepStrategy;
 import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
 import org.apache.tinkerpop.gremlin.structure.*;
@@ -31,11 +45,19 @@ import org.apache.tinkerpop.gremlin.structure.io.Io;
 import org.apache.tinkerpop.gremlin.structure.io.Io.Builder;
 import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 import static org.apache.tinkerpop.gremlin.orientdb.StreamUtils.asStream;
@@ -56,11 +78,20 @@ public final class OrientGraph implements Graph {
         TraversalStrategies.GlobalCache.registerStrategies(
                 OrientGraph.class,
                 TraversalStrategies.GlobalCache.getStrategies(Graph.class).clone()
-                        .addStrategies(OrientGraphStepStrategy.instance()));
+                        .addStrategies(OrientGraphStepStrategy.instance(), OrientGraphCountStrategy.instance(), OrientGraphOrderStrategy.instance(),
+                                OrientGraphIndexValuesStrategy.instance(), OrientGraphGroupCountStrategy.instance(),
+                                OrientVertexStepStrategy.instance(), OrientBatchVertexStepStrategy.instance(),
+                                OrientVertexDegreeStrategy.instance()));
     }
 
     private static final Map<String, String> INTERNAL_CLASSES_TO_TINKERPOP_CLASSES;
 
+    /** maximum number of records loaded by a single query when getting elements by id from a remote storage */
+    static final int MULTI_GET_BATCH_SIZE = 1000;
+
+    /** maximum number of field names and labels whose connection fields are cached */
+    private static final int CONNECTION_CACHE_SIZE = 1000;
+
     static {
         INTERNAL_CLASSES_TO_TINKERPOP_CLASSES = new HashMap<>();
         INTERNAL_CLASSES_TO_TINKERPOP_CLASSES.put(OClass.VERTEX_CLASS_NAME, Vertex.DEFAULT_LABEL);
@@ -76,6 +107,10 @@ public final class OrientGraph implements Graph {
     public static String CONFIG_POOL_SIZE = "orient-max-poolsize";
     public static String CONFIG_MAX_PARTITION_SIZE = "orient-max-partitionsize";
     public static String CONFIG_LABEL_AS_CLASSNAME = "orient-label-as-classname";
+    public static String CONFIG_PARALLEL_INDEX_LOOKUPS = "orient-parallel-index-lookups";
+    public static String CONFIG_PARALLEL_SCANS = "orient-parallel-scans";
+    public static String CONFIG_VERTEX_STEP_BATCH_SIZE = "orient-vertex-step-batch-size";
+    public static String CONFIG_LIGHTWEIGHT_EDGE_LABELS = "orient-lightweight-edge-labels";
 
     protected boolean connectionFailed;
     protected ODatabaseDocumentTx database;
@@ -85,6 +120,13 @@ public final class OrientGraph implements Graph {
     protected final String user;
     protected final String password;
 
+    /** shared by the graphs of a factory, see {@link #getIndexStatistics()} */
+    protected final AtomicReference<OrientIndexStatistics> indexStatistics;
+    /** connection field name -> direction and class, see {@link OrientVertex#getConnection(String)} */
+    final Map<String, OPair<Direction, String>> connections = boundedCache(CONNECTION_CACHE_SIZE);
+    /** edge label -> names of its out and in connection fields of {@link OrientVertex} */
+    final Map<String, String[]> labelFieldNames = boundedCache(CONNECTION_CACHE_SIZE);
+
     public static OrientGraph open(final Configuration config) {
         OrientGraphFactory factory = new OrientGraphFactory(config);
         if (config.containsKey(CONFIG_POOL_SIZE))
@@ -94,6 +136,12 @@ public final class OrientGraph implements Graph {
     }
 
     public OrientGraph(final ODatabaseDocumentTx database, final Configuration configuration, final String user, final String password) {
+        this(database, configuration, user, password, new AtomicReference<>());
+    }
+
+    OrientGraph(final ODatabaseDocumentTx database, final Configuration configuration, final String user, final String password,
+            final AtomicReference<OrientIndexStatistics> indexStatistics) {
+        this.indexStatistics = indexStatistics;
         this.pool = null;
         this.user = user;
         this.password = password;
@@ -108,6 +156,12 @@ public final class OrientGraph implements Graph {
     }
 
     public OrientGraph(final OPartitionedReCreatableDatabasePool pool, final Configuration configuration) {
+        this(pool, configuration, new AtomicReference<>());
+    }
+
+    OrientGraph(final OPartitionedReCreatableDatabasePool pool, final Configuration configuration,
+            final AtomicReference<OrientIndexStatistics> indexStatistics) {
+        this.indexStatistics = indexStatistics;
         this.pool = pool;
         this.database = pool.acquire();
         this.user = "";
@@ -122,6 +176,32 @@ public final class OrientGraph implements Graph {
         }
     }
 
+    /**
+     * @return a map which drops its least recently used entry once it holds
+     *         more than the given number of entries. Like the graph itself,
+     *         it isn't thread safe.
+     */
+    private static <K, V> Map<K, V> boundedCache(final int maxSize) {
+        return new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return the statistics to estimate the cost of index lookups with.
+     *         They're shared by the graphs of the same factory and replaced
+     *         once the schema changes.
+     */
+    public OrientIndexStatistics getIndexStatistics() {
+        makeActive();
+        final int schemaVersion = getSchema().getVersion();
+        return indexStatistics.updateAndGet(statistics -> statistics == null || statistics.getSchemaVersion() != schemaVersion
+                ? new OrientIndexStatistics(schemaVersion) : statistics);
+    }
+
     public Features features() {
         return features;
     }
@@ -234,6 +314,72 @@ public final class OrientGraph implements Graph {
         return label.equals(prefix) ? prefix : prefix + "_" + label;
     }
 
+    /**
+     * @return true if edges with the given label and without properties are
+     *         stored as lightweight edges, i.e. as links between the vertices
+     *         without an edge record
+     */
+    public boolean isLightweightEdgeLabel(String label) {
+        return getLightweightEdgeLabels().contains(label);
+    }
+
+    /**
+     * @return the labels of the edges stored as lightweight edges, see
+     *         {@link #CONFIG_LIGHTWEIGHT_EDGE_LABELS}
+     */
+    public List<String> getLightweightEdgeLabels() {
+        return Arrays.asList(configuration.getStringArray(CONFIG_LIGHTWEIGHT_EDGE_LABELS));
+    }
+
+    /**
+     * @return the lightweight edges with one of the given labels. They don't
+     *         belong to an edge class, so they're found by scanning the
+     *         vertices for links to other vertices. Only the vertex classes
+     *         that declare the field of an outgoing edge with one of the
+     *         labels are scanned (see
+     *         {@link #declareLightweightEdgeField(OClass, String)}), but that
+     *         is still a scan of every vertex of those classes.
+     */
+    public Iterator<OrientEdge> getLightweightEdges(Collection<String> labels) {
+        makeActive();
+        if (labels.isEmpty())
+            return Collections.emptyIterator();
+
+        final String[] labelArray = labels.toArray(new String[labels.size()]);
+        final Set<String> fieldNames = labels.stream()
+                .map(label -> OrientVertex.getConnectionFieldName(Direction.OUT, OrientGraphUtils.encodeClassName(label)))
+                .collect(Collectors.toSet());
+        final OSchema schema = database.getMetadata().getImmutableSchemaSnapshot();
+        final OClass vertexClass = schema.getClass(OClass.VERTEX_CLASS_NAME);
+        final List<String> classNames = schema.getClasses().stream()
+                .filter(cls -> !cls.isAbstract() && cls.isSubClassOf(vertexClass))
+                .filter(cls -> fieldNames.stream().anyMatch(fieldName -> cls.getProperty(fieldName) != null))
+                .map(OClass::getName)
+                .collect(Collectors.toList());
+        final Iterator<ORecord> vertices = IteratorUtils.flatMap(classNames.iterator(),
+                className -> new ORecordIteratorClass<ORecord>(database, database, className, false));
+        return IteratorUtils.flatMap(vertices, record -> IteratorUtils.map(
+                IteratorUtils.filter(new OrientVertex(this, getRawDocument(record)).edges(Direction.OUT, labelArray), edge -> ((OrientEdge) edge).isLightweight()),
+                edge -> (OrientEdge) edge));
+    }
+
+    /**
+     * Declares the field of the outgoing lightweight edges with a label on a
+     * vertex class, so that {@link #getLightweightEdges(Collection)} knows
+     * which classes to scan.
+     */
+    void declareLightweightEdgeField(final OClass vertexClass, final String fieldName) {
+        if (vertexClass.getProperty(fieldName) != null)
+            return;
+
+        makeActive();
+        OClass cls = database.getMetadata().getSchema().getClass(vertexClass.getName());
+        if (cls.getProperty(fieldName) == null) {
+            cls.createProperty(fieldName, OType.LINKBAG);
+            OLogManager.instance().info(this, "created property '" + fieldName + "' of class '" + cls.getName() + "'");
+        }
+    }
+
     /**
      * Convert a orientdb class name to label
      */
@@ -252,7 +398,14 @@ public final class OrientGraph implements Graph {
             final OType[] types = idx.getKeyTypes();
             if (types.length == 0)
                 iValue = iValue.toString();
-            else
+            else if (iValue instanceof OCompositeKey) {
+                // convert every part of a (possibly partial) composite key
+                final OCompositeKey converted = new OCompositeKey();
+                final List<Object> keys = ((OCompositeKey) iValue).getKeys();
+                for (int i = 0; i < keys.size(); i++)
+                    converted.addKey(i < types.length ? OType.convert(keys.get(i), types[i].getDefaultJavaType()) : keys.get(i));
+                iValue = converted;
+            } else
                 iValue = OType.convert(iValue, types[0].getDefaultJavaType());
         }
         return iValue;
@@ -266,6 +419,335 @@ public final class OrientGraph implements Graph {
         return getIndexedElements(index, valueIter, OrientEdge::new);
     }
 
+    public Iterator<OrientVertex> getIndexedVertices(Collection<OrientIndexQuery> queries) {
+        return getIndexedElements(queries, OrientVertex::new);
+    }
+
+    public Iterator<OrientEdge> getIndexedEdges(Collection<OrientIndexQuery> queries) {
+        return getIndexedElements(queries, OrientEdge::new);
+    }
+
+    public Stream<OrientVertex> getIndexedVertices(OrientIndexQuery query) {
+        return getIndexedElements(query, OrientVertex::new);
+    }
+
+    public Stream<OrientEdge> getIndexedEdges(OrientIndexQuery query) {
+        return getIndexedElements(query, OrientEdge::new);
+    }
+
+    /**
+     * @return the vertices of exactly the given class (not its subclasses),
+     *         only reading the clusters of that class
+     */
+    public Stream<OrientVertex> getVerticesOfClass(String className) {
+        return getElementsOfClass(className, OrientVertex::new);
+    }
+
+    /**
+     * @return the edges of exactly the given class (not its subclasses),
+     *         only reading the clusters of that class
+     */
+    public Stream<OrientEdge> getEdgesOfClass(String className) {
+        return getElementsOfClass(className, OrientEdge::new);
+    }
+
+    private <ElementType extends OrientElement> Stream<ElementType> getElementsOfClass(
+            String className, BiFunction<OrientGraph, OIdentifiable, ElementType> newElement) {
+        makeActive();
+        Iterator<ORecord> records = new ORecordIteratorClass<>(database, database, className, false);
+        return asStream(records).map(r -> newElement.apply(this, getRawDocument(r)));
+    }
+
+    /**
+     * Counts the vertices of the given clusters that pass the filter per key,
+     * without keeping any of them.
+     */
+    public Map<Object, Long> groupCountVertices(int[] clusterIds, Predicate<? super Vertex> filter, Function<? super Vertex, ?> key) {
+        return groupCountElements(clusterIds, OrientVertex::new, filter, key);
+    }
+
+    /**
+     * Counts the edges of the given clusters that pass the filter per key,
+     * without keeping any of them.
+     */
+    public Map<Object, Long> groupCountEdges(int[] clusterIds, Predicate<? super Edge> filter, Function<? super Edge, ?> key) {
+        return groupCountElements(clusterIds, OrientEdge::new, filter, key);
+    }
+
+    /**
+     * Counts cluster by cluster. If {@link #CONFIG_PARALLEL_SCANS} is enabled
+     * each cluster is counted on its own connection from the pool, and the
+     * counts of the clusters are merged once they're all done.
+     */
+    private <ElementType extends OrientElement> Map<Object, Long> groupCountElements(
+            int[] clusterIds,
+            BiFunction<OrientGraph, OIdentifiable, ElementType> newElement,
+            Predicate<? super ElementType> filter,
+            Function<? super ElementType, ?> key) {
+        final Map<Object, Long> counts = new HashMap<>();
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        if (clusterIds.length < 2 || !isParallelScans()) {
+            makeActive();
+            for (int clusterId : clusterIds)
+                groupCount(this, clusterId, newElement, filter, key, counts, cancelled);
+            return counts;
+        }
+
+        final List<CompletableFuture<Map<Object, Long>>> scans = Arrays.stream(clusterIds)
+                .mapToObj(clusterId -> CompletableFuture.supplyAsync(
+                        () -> groupCountOnPooledConnection(clusterId, newElement, filter, key, cancelled), pool.executor()))
+                .collect(Collectors.toList());
+        try {
+            for (CompletableFuture<Map<Object, Long>> scan : scans)
+                join(scan).forEach((k, count) -> counts.merge(k, count, Long::sum));
+        } finally {
+            // stops the scans which are still running if one of them failed
+            cancelled.set(true);
+        }
+        return counts;
+    }
+
+    private boolean isParallelScans() {
+        // other connections don't see the changes of the current transaction
+        return pool != null && configuration.getBoolean(CONFIG_PARALLEL_SCANS, false)
+                && database.getTransaction().getEntryCount() == 0;
+    }
+
+    /**
+     * Counts the elements of the cluster on a pooled connection. They're
+     * created by a graph on that connection, so that they're completely read
+     * before it's closed again.
+     */
+    private <ElementType extends OrientElement> Map<Object, Long> groupCountOnPooledConnection(
+            int clusterId,
+            BiFunction<OrientGraph, OIdentifiable, ElementType> newElement,
+            Predicate<? super ElementType> filter,
+            Function<? super ElementType, ?> key,
+            AtomicBoolean cancelled) {
+        return onPooledConnection(db -> {
+            final Map<Object, Long> counts = new HashMap<>();
+            groupCount(new OrientGraph(db, configuration, user, password, indexStatistics), clusterId, newElement, filter, key, counts, cancelled);
+            return counts;
+        });
+    }
+
+    private static <ElementType extends OrientElement> void groupCount(
+            OrientGraph graph,
+            int clusterId,
+            BiFunction<OrientGraph, OIdentifiable, ElementType> newElement,
+            Predicate<? super ElementType> filter,
+            Function<? super ElementType, ?> key,
+            Map<Object, Long> counts,
+            AtomicBoolean cancelled) {
+        final Iterator<ORecord> records = new ORecordIteratorCluster<>(graph.database, graph.database, clusterId);
+        while (records.hasNext() && !cancelled.get()) {
+            ElementType element = newElement.apply(graph, graph.getRawDocument(records.next()));
+            if (filter.test(element))
+                counts.merge(key.apply(element), 1L, Long::sum);
+        }
+    }
+
+    /**
+     * Runs the task with its own connection from the pool. The database
+     * which was active on the current thread before is active again
+     * afterwards.
+     */
+    private <T> T onPooledConnection(Function<ODatabaseDocumentTx, T> task) {
+        final ODatabaseDocumentInternal previous = ODatabaseRecordThreadLocal.INSTANCE.getIfDefined();
+        final ODatabaseDocumentTx db = pool.acquire();
+        try {
+            db.activateOnCurrentThread();
+            return task.apply(db);
+        } finally {
+            db.close();
+            if (previous != null)
+                ODatabaseRecordThreadLocal.INSTANCE.set(previous);
+            else
+                ODatabaseRecordThreadLocal.INSTANCE.remove();
+        }
+    }
+
+    /**
+     * Runs the queries one after another, or in parallel on connections from
+     * the pool if {@link #CONFIG_PARALLEL_INDEX_LOOKUPS} is enabled. In both
+     * cases the results are merged lazily in the order of the queries, and
+     * the records are loaded by this graph's connection.
+     */
+    private <ElementType extends OrientElement> Iterator<ElementType> getIndexedElements(
+            Collection<OrientIndexQuery> queries,
+            BiFunction<OrientGraph, OIdentifiable, ElementType> newElement) {
+        if (queries.size() < 2 || !isParallelIndexLookups())
+            // a query is only executed once the previous one is exhausted
+            return IteratorUtils.flatMap(queries.iterator(), query -> getIndexedElements(query, newElement).iterator());
+
+        List<CompletableFuture<List<OIdentifiable>>> lookups = queries.stream()
+                .map(query -> CompletableFuture.supplyAsync(() -> lookupOnPooledConnection(query), pool.executor()))
+                .collect(Collectors.toList());
+        return IteratorUtils.flatMap(lookups.iterator(), lookup -> {
+            List<OIdentifiable> ids = join(lookup);
+            makeActive();
+            Stream<ORecord> records = ids.stream().map(id -> id.getRecord());
+            return records.filter(r -> r != null).map(r -> newElement.apply(this, getRawDocument(r))).iterator();
+        });
+    }
+
+    private boolean isParallelIndexLookups() {
+        // other connections don't see the changes of the current transaction
+        return pool != null && configuration.getBoolean(CONFIG_PARALLEL_INDEX_LOOKUPS, false)
+                && database.getTransaction().getEntryCount() == 0;
+    }
+
+    private List<OIdentifiable> lookupOnPooledConnection(OrientIndexQuery query) {
+        if (query.keyCount() == 0)
+            return Collections.emptyList();
+
+        return onPooledConnection(db -> {
+            Stream<OIdentifiable> ids = query.getIntersections().isEmpty() ? lookupInIndex(query) : intersectInIndexes(query);
+            return ids.<OIdentifiable> map(OIdentifiable::getIdentity).collect(Collectors.toList());
+        });
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    private <ElementType extends OrientElement> Stream<ElementType> getIndexedElements(
+            OrientIndexQuery query,
+            BiFunction<OrientGraph, OIdentifiable, ElementType> newElement) {
+        if (query.keyCount() == 0)
+            // e.g. within() without values
+            return Stream.empty();
+        if (!query.isRange() && query.getIntersections().isEmpty())
+            return getIndexedElements(query.index, query.values(), newElement);
+
+        return executeWithConnectionCheck(() -> {
+            makeActive();
+
+            Stream<OIdentifiable> ids = query.getIntersections().isEmpty() ? lookupInIndex(query) : intersectInIndexes(query);
+            Stream<ORecord> records = ids.map(id -> id.getRecord());
+            return records.filter(r -> r != null).map(r -> newElement.apply(this, getRawDocument(r)));
+        });
+    }
+
+    /**
+     * @return the ids found in the index by the given query, without loading
+     *         the records
+     */
+    @SuppressWarnings("unchecked")
+    private Stream<OIdentifiable> lookupInIndex(OrientIndexQuery query) {
+        OIndex<Object> index = query.index;
+        if (!query.isRange()) {
+            if (query.keyCount() < 0)
+                return asStream(index.cursor());
+            return asStream(query.values()).map(value -> convertValue(index, value)).flatMap(v -> lookupInIndex(index, v)).filter(r -> r != null);
+        }
+
+        return asStream(rangeCursor(query)).filter(r -> r != null);
+    }
+
+    private OIndexCursor rangeCursor(OrientIndexQuery query) {
+        OIndex<Object> index = query.index;
+        Object from = convertValue(index, query.fromKey);
+        Object to = convertValue(index, query.toKey);
+
+        if (from != null && to != null)
+            return index.iterateEntriesBetween(from, query.fromInclusive, to, query.toInclusive, query.ascending);
+        else if (from != null)
+            return index.iterateEntriesMajor(from, query.fromInclusive, query.ascending);
+        else if (to != null)
+            return index.iterateEntriesMinor(to, query.toInclusive, query.ascending);
+        else
+            return query.ascending ? index.cursor() : index.descCursor();
+    }
+
+    /**
+     * Reads the keys in the range of the given query from the index, without
+     * loading any record.
+     *
+     * @return the keys in index order, each with the number of records
+     *         indexed under it
+     */
+    public Iterator<Map.Entry<Object, Long>> getIndexKeyCounts(OrientIndexQuery query) {
+        return executeWithConnectionCheck(() -> {
+            makeActive();
+            final OIndexCursor cursor = rangeCursor(query);
+
+            return new Iterator<Map.Entry<Object, Long>>() {
+                private Map.Entry<Object, OIdentifiable> entry = nextEntry();
+
+                @Override
+                public boolean hasNext() {
+                    return entry != null;
+                }
+
+                @Override
+                public Map.Entry<Object, Long> next() {
+                    if (entry == null)
+                        throw new NoSuchElementException();
+                    final Object key = entry.getKey();
+                    long count = 0;
+                    // the entries of a key are next to each other in an ordered index
+                    while (entry != null && key.equals(entry.getKey())) {
+                        count++;
+                        entry = nextEntry();
+                    }
+                    return new AbstractMap.SimpleImmutableEntry<>(key, count);
+                }
+
+                private Map.Entry<Object, OIdentifiable> nextEntry() {
+                    Map.Entry<Object, OIdentifiable> next = cursor.nextEntry();
+                    // null values aren't properties
+                    while (next != null && next.getKey() == null)
+                        next = cursor.nextEntry();
+                    return next;
+                }
+            };
+        });
+    }
+
+    /**
+     * Intersects the ids found by the query with the ids found by each of its
+     * intersected queries before any record is loaded. The ids are packed into
+     * sorted longs and merged, which also loads the remaining records in the
+     * order they're stored.
+     */
+    private Stream<OIdentifiable> intersectInIndexes(OrientIndexQuery query) {
+        long[] ids = sortedRids(lookupInIndex(query));
+        for (List<OrientIndexQuery> intersection : query.getIntersections()) {
+            if (ids.length == 0)
+                break;
+            ids = intersectSorted(ids, sortedRids(intersection.stream().flatMap(this::lookupInIndex)));
+        }
+        return LongStream.of(ids).mapToObj(OrientGraphUtils::unpackRid);
+    }
+
+    private static long[] sortedRids(Stream<OIdentifiable> ids) {
+        return ids.mapToLong(id -> OrientGraphUtils.packRid(id.getIdentity())).sorted().distinct().toArray();
+    }
+
+    private static long[] intersectSorted(long[] a, long[] b) {
+        long[] result = new long[Math.min(a.length, b.length)];
+        int size = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length;) {
+            if (a[i] < b[j])
+                i++;
+            else if (a[i] > b[j])
+                j++;
+            else {
+                result[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
     private <ElementType extends OrientElement> Stream<ElementType> getIndexedElements(
             OIndex<Object> index,
             Iterator<Object> valuesIter,
@@ -277,7 +759,7 @@ public final class OrientGraph implements Graph {
                 return Collections.<ElementType> emptyList().stream();
             } else {
                 if (!valuesIter.hasNext()) {
-                    return index.cursor().toValues().stream().map(id -> newElement.apply(this, id));
+                    return asStream(index.cursor()).map(id -> newElement.apply(this, id));
                 } else {
                     Stream<Object> convertedValues = StreamUtils.asStream(valuesIter).map(value -> convertValue(index, value));
                     Stream<OIdentifiable> ids = convertedValues.flatMap(v -> lookupInIndex(index, v)).filter(r -> r != null);
@@ -353,15 +835,59 @@ public final class OrientGraph implements Graph {
 
     @Override
     public Iterator<Edge> edges(Object... edgeIds) {
+        if (Stream.of(edgeIds).anyMatch(id -> lightweightId(id) != null))
+            // looked up one by one, in the order of the ids
+            return IteratorUtils.flatMap(Arrays.asList(edgeIds).iterator(), id -> {
+                final OrientEdge.LightweightId lightweightId = lightweightId(id);
+                return lightweightId != null ? lightweightEdge(lightweightId) : edges(id);
+            });
+
         return executeWithConnectionCheck(() -> {
             makeActive();
-            return elements(
+            final Iterator<Edge> edges = elements(
                     OClass.EDGE_CLASS_NAME,
                     r -> new OrientEdge(this, getRawDocument(r)),
                     edgeIds);
+            if (edgeIds.length > 0)
+                return edges;
+            return IteratorUtils.concat(edges, IteratorUtils.map(getLightweightEdges(getLightweightEdgeLabels()), edge -> (Edge) edge));
+        });
+    }
+
+    /**
+     * @return the edges of the edge classes, i.e. all the edges except the
+     *         lightweight ones
+     */
+    public Iterator<Edge> getEdgesOfClasses() {
+        return executeWithConnectionCheck(() -> {
+            makeActive();
+            return elements(OClass.EDGE_CLASS_NAME, r -> new OrientEdge(this, getRawDocument(r)));
         });
     }
 
+    private static OrientEdge.LightweightId lightweightId(Object id) {
+        if (id instanceof OrientElement)
+            id = ((OrientElement) id).id();
+        if (id instanceof OrientEdge.LightweightId)
+            return (OrientEdge.LightweightId) id;
+        if (id instanceof String)
+            return OrientEdge.LightweightId.parse((String) id);
+        return null;
+    }
+
+    /**
+     * @return the lightweight edge with the given id if the out vertex still
+     *         links to the in vertex with its label
+     */
+    private Iterator<Edge> lightweightEdge(OrientEdge.LightweightId id) {
+        makeActive();
+        final ORecord out = id.getOut().getRecord();
+        if (!(out instanceof ODocument))
+            return Collections.emptyIterator();
+        final Iterator<Edge> edges = new OrientVertex(this, out).edges(Direction.OUT, OrientGraphUtils.decodeClassName(id.getLabel()));
+        return IteratorUtils.limit(IteratorUtils.filter(edges, edge -> id.equals(edge.id())), 1);
+    }
+
     protected <A extends Element> Iterator<A> elements(String elementClass, Function<ORecord, A> toA, Object... elementIds) {
         boolean polymorphic = true;
         if (elementIds.length == 0) {
@@ -369,18 +895,58 @@ public final class OrientGraph implements Graph {
             Iterator<ORecord> itty = new ORecordIteratorClass<>(database, database, elementClass, polymorphic);
             return asStream(itty).map(toA).iterator();
         } else {
-            Stream<ORID> ids = Stream.of(elementIds).map(OrientGraph::createRecordId).peek(id -> checkId(id));
-            Stream<ORecord> records = ids.filter(ORID::isValid).map(id -> (ORecord) id.getRecord()).filter(r -> r != null);
-            return records.map(toA).iterator();
+            // the ids are checked when the first element is requested, then
+            // the records are loaded one batch at a time as they're consumed
+            Supplier<List<ORID>> ids = () -> Stream.of(elementIds).map(OrientGraph::createRecordId).map(this::checkId).collect(Collectors.toList());
+            Iterator<List<ORID>> batches = IteratorUtils.flatMap(IteratorUtils.of(ids), i -> Lists.partition(i.get(), MULTI_GET_BATCH_SIZE).iterator());
+            return IteratorUtils.map(IteratorUtils.flatMap(batches, batch -> loadRecords(batch).iterator()), toA);
         }
     }
 
+    /**
+     * @return the existing records in the order of the given ids
+     * @see #getRecords(Collection)
+     */
+    private Stream<ORecord> loadRecords(List<ORID> ids) {
+        final Map<ORID, ORecord> records = getRecords(ids);
+        return ids.stream().map(records::get).filter(r -> r != null);
+    }
+
+    /**
+     * Loads the records with the given ids in as few storage calls as
+     * possible: the ids are read sorted by cluster and position, and for
+     * remote storages in batches of {@link #MULTI_GET_BATCH_SIZE} records per
+     * query instead of one round trip per id.
+     *
+     * @return the existing records by id
+     */
+    public Map<ORID, ORecord> getRecords(Collection<ORID> ids) {
+        makeActive();
+        final List<ORID> sortedIds = ids.stream().distinct().sorted().collect(Collectors.toList());
+        final Map<ORID, ORecord> records = new HashMap<>();
+
+        // records changed in the current transaction are only visible when loaded one by one
+        if (database.getStorage().isRemote() && database.getTransaction().getEntryCount() == 0) {
+            for (List<ORID> batch : Lists.partition(sortedIds, MULTI_GET_BATCH_SIZE)) {
+                // the ids are passed as parameter, the query isn't parsed anew for every batch
+                List<ODocument> documents = database.query(new OSQLSynchQuery<ODocument>("select from ?"), new ArrayList<>(batch));
+                documents.forEach(document -> records.put(document.getIdentity(), document));
+            }
+        } else {
+            for (ORID id : sortedIds) {
+                ORecord record = id.getRecord();
+                if (record != null)
+                    records.put(id, record);
+            }
+        }
+        return records;
+    }
+
     private ORID checkId(ORID id) {
         if (!id.isValid())
             throw new IllegalArgumentException("Invalid id " + id);
-        try {
-            database.getRecordMetadata(id);
-        } catch (IllegalArgumentException e) {
+        // the clusters are known without asking the storage, unlike the record metadata
+        if (database.getClusterNameById(id.getClusterId()) == null) {
             // bummer, the API force me to break the chain =((
             // https://github.com/apache/incubator-tinkerpop/commit/34ec9e7f60f15b5dbfa684a8e96668d9bbcb6752#commitcomment-14235497
             throw Graph.Exceptions.elementNotFound(Edge.class, id);
@@ -9,6 +9,8 @@ import com.orientechnologies.orient.core.exception.ODatabaseException;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.metadata.schema.OSchema;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 public final class OrientGraphFactory {
     public static String ADMIN = "admin";
     protected final String url;
@@ -17,6 +19,12 @@ public final class OrientGraphFactory {
     protected Configuration configuration;
     protected volatile OPartitionedReCreatableDatabasePool pool;
     protected boolean labelAsClassName;
+    protected boolean parallelIndexLookups;
+    protected boolean parallelScans;
+    protected int vertexStepBatchSize;
+    protected String[] lightweightEdgeLabels;
+    /** shared by all the graphs of this factory */
+    protected final AtomicReference<OrientIndexStatistics> indexStatistics = new AtomicReference<>();
 
     public OrientGraphFactory(String url) {
         this(url, ADMIN, ADMIN);
@@ -27,6 +35,10 @@ public final class OrientGraphFactory {
         this.user = user;
         this.password = password;
         this.labelAsClassName = false;
+        this.parallelIndexLookups = false;
+        this.parallelScans = false;
+        this.vertexStepBatchSize = 0;
+        this.lightweightEdgeLabels = new String[0];
     }
 
     public OrientGraphFactory(Configuration config) {
@@ -66,9 +78,9 @@ public final class OrientGraphFactory {
         final OrientGraph g;
         final Configuration config = getConfiguration(create, open, transactional);
         if (pool != null) {
-            g = new OrientGraph(pool, config);
+            g = new OrientGraph(pool, config, indexStatistics);
         } else {
-            g = new OrientGraph(getDatabase(create, open), config, user, password);
+            g = new OrientGraph(getDatabase(create, open), config, user, password, indexStatistics);
         }
         initGraph(g);
         return g;
@@ -108,6 +120,10 @@ public final class OrientGraphFactory {
                     setProperty(OrientGraph.CONFIG_OPEN, open);
                     setProperty(OrientGraph.CONFIG_TRANSACTIONAL, transactional);
                     setProperty(OrientGraph.CONFIG_LABEL_AS_CLASSNAME, labelAsClassName);
+                    setProperty(OrientGraph.CONFIG_PARALLEL_INDEX_LOOKUPS, parallelIndexLookups);
+                    setProperty(OrientGraph.CONFIG_PARALLEL_SCANS, parallelScans);
+                    setProperty(OrientGraph.CONFIG_VERTEX_STEP_BATCH_SIZE, vertexStepBatchSize);
+                    setProperty(OrientGraph.CONFIG_LIGHTWEIGHT_EDGE_LABELS, lightweightEdgeLabels);
                 }
             };
     }
@@ -143,6 +159,63 @@ public final class OrientGraphFactory {
         return this;
     }
 
+    /**
+     * Enable or disable running the index lookups for several labels in
+     * parallel, each on its own connection from the pool. Only has an effect
+     * if a pool is set up.
+     *
+     * @param is
+     *            if true the lookups run in parallel, if false one after
+     *            another (default)
+     */
+    public OrientGraphFactory setParallelIndexLookups(boolean is) {
+        this.parallelIndexLookups = is;
+        return this;
+    }
+
+    /**
+     * Enable or disable reading the clusters in parallel, each on its own
+     * connection from the pool, when aggregating over a scan (e.g.
+     * <code>groupCount()</code>). Only has an effect if a pool is set up.
+     *
+     * @param is
+     *            if true the clusters are read in parallel, if false one
+     *            after another (default)
+     */
+    public OrientGraphFactory setParallelScans(boolean is) {
+        this.parallelScans = is;
+        return this;
+    }
+
+    /**
+     * Sets the number of traversers whose adjacent vertices are loaded
+     * together by <code>out()</code>, <code>in()</code> and
+     * <code>both()</code>, sorted by record id and in as few storage calls as
+     * possible.
+     *
+     * @param batchSize
+     *            number of traversers per batch, 0 or 1 loads the vertices
+     *            of each traverser on its own (default)
+     */
+    public OrientGraphFactory setVertexStepBatchSize(int batchSize) {
+        this.vertexStepBatchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Sets the labels of the edges which are stored as lightweight edges if
+     * they have no properties: the vertices link to each other directly,
+     * without an edge record. Lightweight edges can't get properties later
+     * on.
+     *
+     * @param labels
+     *            edge labels, none by default
+     */
+    public OrientGraphFactory setLightweightEdgeLabels(String... labels) {
+        this.lightweightEdgeLabels = labels;
+        return this;
+    }
+
     /**
      * Setting up the factory to use database pool instead of creation a new
      * instance of database connection each time.
@@ -1,5 +1,8 @@
 package org.apache.tinkerpop.gremlin.orientdb;
 
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
@@ -8,6 +11,8 @@ public class OrientGraphUtils {
     public static final String CONNECTION_OUT = "out";
     public static final String CONNECTION_IN = "in";
 
+    private static final long RID_POSITION_LIMIT = 1L << 48;
+
     public static String encodeClassName(String iClassName) {
         if (iClassName == null)
             return null;
@@ -36,4 +41,18 @@ public class OrientGraphUtils {
         }
     }
 
+    /**
+     * Packs a persistent record id into a long: the cluster id in the upper
+     * 16 bits and the cluster position in the lower 48 bits. Packed ids sort
+     * like the record ids, i.e. by cluster and position.
+     */
+    public static long packRid(ORID rid) {
+        if (!rid.isPersistent() || rid.getClusterPosition() >= RID_POSITION_LIMIT)
+            throw new IllegalArgumentException("Can't pack record id " + rid);
+        return ((long) rid.getClusterId() << 48) | rid.getClusterPosition();
+    }
+
+    public static ORID unpackRid(long packedRid) {
+        return new ORecordId((int) (packedRid >>> 48), packedRid & (RID_POSITION_LIMIT - 1));
+    }
 }
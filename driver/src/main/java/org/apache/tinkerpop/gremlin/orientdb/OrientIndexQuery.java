@@ -1,20 +1,141 @@
 package org.apache.tinkerpop.gremlin.orientdb;
 
+import com.google.common.collect.Lists;
 import com.orientechnologies.orient.core.index.OIndex;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
-import java.util.Optional;
+import java.util.List;
 
 public class OrientIndexQuery {
-    public final Iterator<Object> values;
     public final OIndex index;
 
+    /**
+     * lower and upper bound for range lookups, null means unbounded
+     */
+    public final Object fromKey;
+    public final boolean fromInclusive;
+    public final Object toKey;
+    public final boolean toInclusive;
+    /** order in which a range lookup returns the entries */
+    public final boolean ascending;
+    private final boolean range;
+
+    /**
+     * keys to look up, null to return all entries of the index (or the range
+     * for range lookups)
+     */
+    private final Collection<Object> keys;
+
+    /**
+     * queries on other indexes the results of this query are intersected
+     * with, the results of each list are combined
+     */
+    private final List<List<OrientIndexQuery>> intersections;
+
+    /**
+     * @param values
+     *            keys to look up, all entries of the index are returned if
+     *            there are none
+     */
     public OrientIndexQuery(OIndex index, Iterator<Object> values) {
         this.index = index;
-        this.values = values;
+        this.keys = values.hasNext() ? Collections.unmodifiableList(Lists.newArrayList(values)) : null;
+        this.fromKey = null;
+        this.fromInclusive = false;
+        this.toKey = null;
+        this.toInclusive = false;
+        this.ascending = true;
+        this.range = false;
+        this.intersections = Collections.emptyList();
+    }
+
+    public OrientIndexQuery(OIndex index, Collection<Object> keys) {
+        this.index = index;
+        this.keys = keys;
+        this.fromKey = null;
+        this.fromInclusive = false;
+        this.toKey = null;
+        this.toInclusive = false;
+        this.ascending = true;
+        this.range = false;
+        this.intersections = Collections.emptyList();
+    }
+
+    public OrientIndexQuery(OIndex index, Object fromKey, boolean fromInclusive, Object toKey, boolean toInclusive) {
+        this(index, fromKey, fromInclusive, toKey, toInclusive, true);
+    }
+
+    public OrientIndexQuery(OIndex index, Object fromKey, boolean fromInclusive, Object toKey, boolean toInclusive, boolean ascending) {
+        this.index = index;
+        this.keys = null;
+        this.fromKey = fromKey;
+        this.fromInclusive = fromInclusive;
+        this.toKey = toKey;
+        this.toInclusive = toInclusive;
+        this.ascending = ascending;
+        this.range = true;
+        this.intersections = Collections.emptyList();
+    }
+
+    private OrientIndexQuery(OrientIndexQuery query, List<List<OrientIndexQuery>> intersections) {
+        this.index = query.index;
+        this.keys = query.keys;
+        this.fromKey = query.fromKey;
+        this.fromInclusive = query.fromInclusive;
+        this.toKey = query.toKey;
+        this.toInclusive = query.toInclusive;
+        this.ascending = query.ascending;
+        this.range = query.range;
+        this.intersections = intersections;
+    }
+
+    /**
+     * @return a query returning only the records that are found by this query
+     *         and by one of the given queries as well
+     */
+    public OrientIndexQuery intersect(List<OrientIndexQuery> queries) {
+        List<List<OrientIndexQuery>> intersections = new ArrayList<>(this.intersections);
+        intersections.add(queries);
+        return new OrientIndexQuery(this, Collections.unmodifiableList(intersections));
+    }
+
+    public List<List<OrientIndexQuery>> getIntersections() {
+        return intersections;
+    }
+
+    /**
+     * @return true if this query iterates over a range of keys instead of
+     *         looking up single values
+     */
+    public boolean isRange() {
+        return range;
+    }
+
+    /**
+     * @return a new iterator over the keys to look up, so that the query can
+     *         be executed more than once. It's empty if all entries are
+     *         returned.
+     */
+    public Iterator<Object> values() {
+        return keys == null ? Collections.emptyIterator() : keys.iterator();
+    }
+
+    /**
+     * @return the number of keys to look up, or -1 if all entries are
+     *         returned
+     */
+    public int keyCount() {
+        return keys == null ? -1 : keys.size();
     }
 
     public String toString() {
-        return "OrientIndexQuery(index=" + index + ")";
+        if (range)
+            return "OrientIndexQuery(index=" + index + ", range=" + (fromInclusive ? "[" : "(") + fromKey + ", " + toKey + (toInclusive ? "]" : ")")
+                    + (ascending ? "" : ", descending")
+                    + (intersections.isEmpty() ? "" : ", intersections=" + intersections) + ")";
+        return "OrientIndexQuery(index=" + index + (intersections.isEmpty() ? "" : ", intersections=" + intersections) + ")";
     }
 }
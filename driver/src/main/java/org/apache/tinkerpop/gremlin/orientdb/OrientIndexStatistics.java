@@ -0,0 +1,157 @@
+package org.apache.tinkerpop.gremlin.orientdb;
+
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.index.OCompositeKey;
+import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.index.OIndexCursor;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Estimates how many records an index lookup or a class scan reads, so that
+ * {@link org.apache.tinkerpop.gremlin.orientdb.traversal.step.sideEffect.OrientGraphStep}
+ * can pick the most selective index or fall back to a scan.
+ * <p>
+ * The statistics are shared by the graphs of an {@link OrientGraphFactory}
+ * (see {@link OrientGraph#getIndexStatistics()}) and replaced when the schema
+ * version changes. Since data changes don't bump the schema version, cached
+ * sizes are refreshed after {@link #MAX_AGE_MILLIS}.
+ */
+public class OrientIndexStatistics {
+
+    /** number of index entries read to sample the entries per key of non unique indexes */
+    static final int SAMPLE_SIZE = 1000;
+    static final long MAX_AGE_MILLIS = 60 * 1000;
+    /** assumed fraction of the index covered by an open ended range */
+    static final double RANGE_SELECTIVITY = 1.0 / 3;
+    /** maximum fraction of the class an index may match to be intersected with */
+    static final double MAX_INTERSECTION_SELECTIVITY = 0.5;
+    /** assumed number of index entries read in the time it takes to load a record */
+    static final double INDEX_ENTRIES_PER_RECORD_LOAD = 20;
+
+    private final int schemaVersion;
+    private final ConcurrentMap<String, IndexSize> indexSizes = new ConcurrentHashMap<>();
+
+    OrientIndexStatistics(int schemaVersion) {
+        this.schemaVersion = schemaVersion;
+    }
+
+    int getSchemaVersion() {
+        return schemaVersion;
+    }
+
+    public static boolean isUnique(OIndex<?> index) {
+        String type = index.getType();
+        return OClass.INDEX_TYPE.UNIQUE.name().equals(type) || OClass.INDEX_TYPE.UNIQUE_HASH_INDEX.name().equals(type);
+    }
+
+    /**
+     * @return estimated number of records read by all the given queries
+     */
+    public double estimate(List<OrientIndexQuery> queries) {
+        double estimate = 0;
+        for (OrientIndexQuery query : queries)
+            estimate += estimate(query);
+        return estimate;
+    }
+
+    /**
+     * @return estimated number of records read by the given query
+     */
+    public double estimate(OrientIndexQuery query) {
+        final OIndex<?> index = query.index;
+        final IndexSize size = sizeOf(index);
+
+        if (!query.isRange()) {
+            // a lookup without keys iterates over the whole index
+            return query.keyCount() < 0 ? size.entries : query.keyCount() * size.entriesPerKey();
+        }
+
+        if (query.fromKey instanceof OCompositeKey) {
+            // prefix of a composite key: assume every field is equally selective
+            int fields = index.getDefinition().getFields().size();
+            int prefixLength = ((OCompositeKey) query.fromKey).getKeys().size();
+            return size.entries / Math.pow(Math.max(size.keys, 1), (double) prefixLength / fields);
+        }
+
+        double selectivity = 1;
+        if (query.fromKey != null)
+            selectivity *= RANGE_SELECTIVITY;
+        if (query.toKey != null)
+            selectivity *= RANGE_SELECTIVITY;
+        return size.entries * selectivity;
+    }
+
+    /**
+     * Intersecting the results of the given queries with another index means
+     * reading the ids found in that index, which is cheaper than loading the
+     * records, but not free. It's only worth it if the other index is
+     * expected to filter out at least half of the records.
+     */
+    public boolean isWorthIntersecting(List<OrientIndexQuery> queries, List<OrientIndexQuery> otherQueries, OClass cls) {
+        final double records = estimate(queries);
+        final double otherEntries = estimate(otherQueries);
+        // the index contains the records of the subclasses as well
+        return records > 1
+                && otherEntries <= cls.count(true) * MAX_INTERSECTION_SELECTIVITY
+                && otherEntries <= records * INDEX_ENTRIES_PER_RECORD_LOAD;
+    }
+
+    /**
+     * @return number of records read by scanning exactly the given class
+     *         (without its subclasses), as a label is only matched by the
+     *         elements of its own class
+     */
+    public double estimateScan(OClass cls) {
+        return cls.count(false);
+    }
+
+    private IndexSize sizeOf(OIndex<?> index) {
+        return indexSizes.compute(index.getName(),
+                (name, size) -> size == null || size.isOutdated() ? IndexSize.of(index) : size);
+    }
+
+    private static final class IndexSize {
+        private final double entries;
+        private final long keys;
+        private final long created = System.currentTimeMillis();
+
+        private IndexSize(double entries, long keys) {
+            this.entries = entries;
+            this.keys = keys;
+        }
+
+        private static IndexSize of(OIndex<?> index) {
+            final long keys = index.getKeySize();
+            if (isUnique(index))
+                return new IndexSize(keys, keys);
+
+            // counting all the entries of a non unique index means iterating
+            // over all of them, so only sample the entries per key
+            final OIndexCursor cursor = index.cursor();
+            final Set<Object> sampledKeys = new HashSet<>();
+            int sampledEntries = 0;
+            Map.Entry<Object, OIdentifiable> entry;
+            while (sampledEntries < SAMPLE_SIZE && (entry = cursor.nextEntry()) != null) {
+                sampledKeys.add(entry.getKey());
+                sampledEntries++;
+            }
+            double entriesPerKey = sampledKeys.isEmpty() ? 1 : (double) sampledEntries / sampledKeys.size();
+            return new IndexSize(keys * entriesPerKey, keys);
+        }
+
+        private double entriesPerKey() {
+            return keys == 0 ? 0 : entries / keys;
+        }
+
+        private boolean isOutdated() {
+            return System.currentTimeMillis() - created > MAX_AGE_MILLIS;
+        }
+    }
+}
@@ -32,15 +32,18 @@ public class OrientIoRegistry extends AbstractIoRegistry {
 
     private static final String CLUSTER_ID = "clusterId";
     private static final String CLUSTER_POSITION = "clusterPosition";
+    private static final String LIGHTWEIGHT_EDGE = "lightweightEdge";
 
     private static final OrientIoRegistry INSTANCE = new OrientIoRegistry();
 
     @SuppressWarnings({ "rawtypes", "unchecked" })
     private OrientIoRegistry() {
         register(GryoIo.class, ORecordId.class, new ORecordIdKyroSerializer());
+        register(GryoIo.class, OrientEdge.LightweightId.class, new LightweightIdKyroSerializer());
         register(GryoIo.class, ORidBag.class, new ORidBagKyroSerializer());
         SimpleModule serializer = new SimpleModule();
         serializer.addSerializer(ORecordId.class, new ORecordIdJacksonSerializer());
+        serializer.addSerializer(OrientEdge.LightweightId.class, new LightweightIdJacksonSerializer());
         serializer.addDeserializer(ORecordId.class, (JsonDeserializer) new ORecordIdDeserializer());
         serializer.addSerializer(ORidBag.class, new ORidBagJacksonSerializer());
         serializer.addDeserializer(ORidBag.class, (JsonDeserializer) new ORidBagDeserializer());
@@ -70,7 +73,40 @@ public class OrientIoRegistry extends AbstractIoRegistry {
                     return new ORecordId(map.get(CLUSTER_ID).intValue(), map.get(CLUSTER_POSITION).longValue());
                 }
             }
-            return result;
+            return toLightweightId(result);
+        }
+
+    }
+
+    /**
+     * @return the lightweight edge id serialized as
+     *         <code>{"lightweightEdge": "out-label-&gt;in"}</code>, or the
+     *         given value if it isn't one
+     */
+    private static Object toLightweightId(Object value) {
+        if (value instanceof Map && ((Map<?, ?>) value).size() == 1 && ((Map<?, ?>) value).get(LIGHTWEIGHT_EDGE) instanceof String) {
+            OrientEdge.LightweightId id = OrientEdge.LightweightId.parse((String) ((Map<?, ?>) value).get(LIGHTWEIGHT_EDGE));
+            if (id != null)
+                return id;
+        }
+        return value;
+    }
+
+    final static class LightweightIdJacksonSerializer extends JsonSerializer<OrientEdge.LightweightId> {
+
+        @Override
+        public void serialize(OrientEdge.LightweightId value, JsonGenerator jgen, SerializerProvider provider) throws IOException, JsonProcessingException {
+            this.serializeWithType(value, jgen, provider, null);
+        }
+
+        @Override
+        public void serializeWithType(OrientEdge.LightweightId value, JsonGenerator jgen, SerializerProvider serializers, TypeSerializer typeSer)
+                throws IOException {
+            jgen.writeStartObject();
+            if (typeSer != null)
+                jgen.writeStringField(GraphSONTokens.CLASS, OrientEdge.LightweightId.class.getName());
+            jgen.writeStringField(LIGHTWEIGHT_EDGE, value.toString());
+            jgen.writeEndObject();
         }
 
     }
@@ -149,7 +185,7 @@ public class OrientIoRegistry extends AbstractIoRegistry {
                     return new ORecordId(map.get(CLUSTER_ID).intValue(), map.get(CLUSTER_POSITION).longValue());
                 }
             }
-            return result;
+            return toLightweightId(result);
         }
 
         @Override
@@ -172,6 +208,20 @@ public class OrientIoRegistry extends AbstractIoRegistry {
 
     }
 
+    final static class LightweightIdKyroSerializer extends Serializer<OrientEdge.LightweightId> {
+
+        @Override
+        public OrientEdge.LightweightId read(final Kryo kryo, final Input input, final Class<OrientEdge.LightweightId> idClass) {
+            return OrientEdge.LightweightId.parse(input.readString());
+        }
+
+        @Override
+        public void write(final Kryo kryo, final Output output, final OrientEdge.LightweightId id) {
+            output.writeString(id.toString());
+        }
+
+    }
+
     final static class ORidBagKyroSerializer extends Serializer<ORidBag> {
 
         @Override
@@ -0,0 +1,50 @@
+package org.apache.tinkerpop.gremlin.orientdb;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+
+import java.util.function.BiPredicate;
+
+/**
+ * Predicates that OrientDB can answer from an index, in addition to the
+ * TinkerPop {@link P} predicates, e.g.
+ * <code>g.V().has("name", OrientP.prefix("ab"))</code>.
+ */
+public final class OrientP {
+
+    private OrientP() {
+    }
+
+    /**
+     * Matches strings starting with the given prefix. Uses a range scan over
+     * an ordered index on the key, if there is one.
+     */
+    @SuppressWarnings("unchecked")
+    public static P<String> prefix(final String prefix) {
+        // the predicate accepts any value, values other than strings don't match
+        return new P<>((BiPredicate<String, String>) (BiPredicate<?, ?>) Text.startsWith, prefix);
+    }
+
+    public enum Text implements BiPredicate<Object, Object> {
+        startsWith {
+            @Override
+            public boolean test(final Object value, final Object prefix) {
+                return value instanceof String && prefix instanceof String && ((String) value).startsWith((String) prefix);
+            }
+        };
+
+        /**
+         * @return the exclusive upper bound of the strings starting with the
+         *         given prefix, i.e. the prefix with its last character
+         *         incremented, or null if they're unbounded
+         */
+        public static String successor(String prefix) {
+            int end = prefix.length();
+            // a prefix ending with the largest character has no successor of the same length
+            while (end > 0 && prefix.charAt(end - 1) == Character.MAX_VALUE)
+                end--;
+            if (end == 0)
+                return null;
+            return prefix.substring(0, end - 1) + (char) (prefix.charAt(end - 1) + 1);
+        }
+    }
+}
@@ -5,9 +5,10 @@ import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.db.record.ORecordElement;
 import com.orientechnologies.orient.core.db.record.ORecordLazyList;
 import com.orientechnologies.orient.core.db.record.ridbag.ORidBag;
-import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.metadata.schema.OProperty;
+import com.orientechnologies.orient.core.metadata.schema.OSchema;
 import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.record.impl.ODocumentInternal;
@@ -15,18 +16,20 @@ import com.orientechnologies.orient.core.record.impl.ODocumentInternal;
 import org.apache.tinkerpop.gremlin.structure.*;
 import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.LongConsumer;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Strings.isNullOrEmpty;
-import static org.apache.tinkerpop.gremlin.orientdb.StreamUtils.asStream;
 
 public final class OrientVertex extends OrientElement implements Vertex {
     public static final String CONNECTION_OUT_PREFIX = OrientGraphUtils.CONNECTION_OUT + "_";
@@ -46,44 +49,64 @@ public final class OrientVertex extends OrientElement implements Vertex {
         return new ODocument(className);
     }
 
+    @SuppressWarnings("unchecked")
     public Iterator<Vertex> vertices(final Direction direction, final String... labels) {
         final ODocument doc = getRawDocument();
+        final OSchema schema = graph.database().getMetadata().getImmutableSchemaSnapshot();
 
-        final List<Stream<Vertex>> streamVertices = new ArrayList<>();
-
-        for (String fieldName : doc.fieldNames()) {
-            final OPair<Direction, String> connection = getConnection(direction, fieldName, labels);
-            if (connection == null)
-                // SKIP THIS FIELD
-                continue;
+        final List<Iterator<Vertex>> vertices = new ArrayList<>();
 
+        for (String fieldName : connectionFieldNames(doc, direction, labels)) {
+            final OPair<Direction, String> connection = getConnection(fieldName);
             final Object fieldValue = doc.field(fieldName);
             if (fieldValue == null)
                 continue;
 
+            final Direction vertexDirection = connection.getKey().opposite();
             if (fieldValue instanceof ORidBag)
-                streamVertices.add(asStream(((ORidBag) fieldValue).rawIterator())
-                        .map(oIdentifiable -> new OrientEdge(graph, oIdentifiable.getRecord()))
-                        .map(edge -> edge.vertices(direction.opposite()))
-                        .flatMap(vertices -> asStream(vertices)));
+                vertices.add(IteratorUtils.filter(
+                        IteratorUtils.map(((ORidBag) fieldValue).rawIterator(), oIdentifiable -> adjacentVertex(schema, oIdentifiable, vertexDirection)),
+                        Objects::nonNull));
             else
                 throw new IllegalStateException("Invalid content found in " + fieldName + " field: " + fieldValue);
         }
 
-        return streamVertices.stream()
-                .flatMap(vertices -> vertices)
-                .iterator();
+        return IteratorUtils.concat(vertices.toArray(new Iterator[vertices.size()]));
+    }
 
+    /**
+     * @return the vertex at the given end of the edge, read from the link in
+     *         the edge document without going through
+     *         {@link OrientGraph#vertices(Object...)}, or null if the edge
+     *         record is gone
+     */
+    private Vertex adjacentVertex(final OSchema schema, final OIdentifiable oIdentifiable, final Direction vertexDirection) {
+        if (isVertexId(schema, oIdentifiable))
+            // lightweight edge, the vertex links to the other vertex directly
+            return new OrientVertex(graph, oIdentifiable);
+
+        final Object edge = oIdentifiable.getRecord();
+        if (!(edge instanceof ODocument))
+            return null;
+        final OIdentifiable link = OrientEdge.getConnection((ODocument) edge, vertexDirection);
+        return link == null ? null : new OrientVertex(graph, link);
     }
 
+    @SuppressWarnings("unchecked")
     public <V> Iterator<VertexProperty<V>> properties(final String... propertyKeys) {
-        Iterator<? extends Property<V>> properties = super.properties(propertyKeys);
-        return StreamUtils.asStream(properties)
-                .filter(p -> !INTERNAL_FIELDS.contains(p.key()))
-                .filter(p -> !p.key().startsWith("out_"))
-                .filter(p -> !p.key().startsWith("in_"))
-                .filter(p -> !p.key().startsWith("_meta_"))
-                .map(p -> (VertexProperty<V>) new OrientVertexProperty<>(p.key(), p.value(), (OrientVertex) p.element())).iterator();
+        // the properties are created as vertex properties, see createProperty
+        return (Iterator<VertexProperty<V>>) super.<V> properties(propertyKeys);
+    }
+
+    @Override
+    protected <V> Property<V> createProperty(final String key, final V value) {
+        return new OrientVertexProperty<>(key, value, this);
+    }
+
+    @Override
+    protected boolean isInternalField(String fieldName) {
+        return INTERNAL_FIELDS.contains(fieldName) || fieldName.startsWith(CONNECTION_OUT_PREFIX) || fieldName.startsWith(CONNECTION_IN_PREFIX)
+                || fieldName.startsWith("_meta_");
     }
 
     @Override
@@ -137,6 +160,7 @@ public final class OrientVertex extends OrientElement implements Vertex {
 
         final OrientEdge edge;
 
+        final boolean lightweight = keyValues.length == 0 && graph.isLightweightEdgeLabel(label);
         label = OrientGraphUtils.encodeClassName(label);
 
         final String outFieldName = getConnectionFieldName(Direction.OUT, label);
@@ -148,6 +172,16 @@ public final class OrientVertex extends OrientElement implements Vertex {
         if (label == null)
             throw new IllegalStateException("label cannot be null");
 
+        if (lightweight) {
+            // no edge document, the vertices link to each other directly
+            graph.declareLightweightEdgeField(ODocumentInternal.getImmutableSchemaClass(outDocument), outFieldName);
+            createLink(outDocument, inDocument, outFieldName);
+            createLink(inDocument, outDocument, inFieldName);
+            inDocument.save();
+            outDocument.save();
+            return new OrientEdge(graph, outDocument, inDocument, label);
+        }
+
         // CREATE THE EDGE DOCUMENT TO STORE FIELDS TOO
         //String className = graph.labelToClassName(label, OClass.EDGE_CLASS_NAME);
         edge = new OrientEdge(graph, label, outDocument, inDocument, label);
@@ -169,9 +203,14 @@ public final class OrientVertex extends OrientElement implements Vertex {
         if (doc.getInternalStatus() == ORecordElement.STATUS.NOT_LOADED)
             doc.load();
 
-        Iterator<Edge> allEdges = edges(Direction.BOTH, "E");
-        while (allEdges.hasNext())
-            allEdges.next().remove();
+        // edges() walks the edge bags lazily and removing an edge changes
+        // them, so the edges are collected first
+        final List<Edge> allEdges = IteratorUtils.list(edges(Direction.BOTH, "E"));
+        // a self-loop is found in both the out and the in bag
+        final Set<Object> removedIds = new HashSet<>();
+        for (Edge edge : allEdges)
+            if (((OrientEdge) edge).isLightweight() || removedIds.add(edge.id()))
+                edge.remove();
 
         doc.getDatabase().delete(doc.getIdentity());
     }
@@ -243,84 +282,209 @@ public final class OrientVertex extends OrientElement implements Vertex {
         return out;
     }
 
+    @SuppressWarnings("unchecked")
     public Iterator<Edge> edges(final Direction direction, String... edgeLabels) {
         final ODocument doc = getRawDocument();
+        final OSchema schema = graph.database().getMetadata().getImmutableSchemaSnapshot();
 
-        final List<List<OIdentifiable>> streamVertices = new ArrayList<>();
-
-        for (String fieldName : doc.fieldNames()) {
-            final OPair<Direction, String> connection = getConnection(direction, fieldName, edgeLabels);
-            if (connection == null)
-                // SKIP THIS FIELD
-                continue;
+        final List<Iterator<Edge>> edges = new ArrayList<>();
 
+        for (String fieldName : connectionFieldNames(doc, direction, edgeLabels)) {
+            final OPair<Direction, String> connection = getConnection(fieldName);
             final Object fieldValue = doc.field(fieldName);
             if (fieldValue == null)
                 continue;
 
+            final Direction fieldDirection = connection.getKey();
+            final String label = connection.getValue();
             if (fieldValue instanceof ORidBag)
-                streamVertices.add(asStream(((ORidBag) fieldValue).iterator()).collect(Collectors.toList()));
+                // the bag is walked lazily, a limit or an existence check
+                // only reads the ids it needs
+                edges.add(IteratorUtils.map(
+                        IteratorUtils.filter(((ORidBag) fieldValue).rawIterator(), Objects::nonNull),
+                        oIdentifiable -> toEdge(schema, oIdentifiable, fieldDirection, label)));
             else
                 throw new IllegalStateException("Invalid content found in " + fieldName + " field: " + fieldValue);
         }
 
-        return streamVertices.stream()
-                .flatMap(edges -> edges.stream())
-                .filter(oId -> oId != null)
-                .map(oIdentifiable -> new OrientEdge(graph, oIdentifiable.getRecord()))
-                .map(edge -> (Edge) edge)
-                .iterator();
+        return IteratorUtils.concat(edges.toArray(new Iterator[edges.size()]));
+    }
+
+    private Edge toEdge(final OSchema schema, final OIdentifiable oIdentifiable, final Direction direction, final String label) {
+        if (!isVertexId(schema, oIdentifiable))
+            return new OrientEdge(graph, oIdentifiable);
+        // lightweight edge, the vertex links to the other vertex directly
+        return direction == Direction.OUT ? new OrientEdge(graph, rawElement, oIdentifiable, label) : new OrientEdge(graph, oIdentifiable, rawElement, label);
     }
 
     /**
-     * Determines if a field is a connections or not.
-     *
-     * @param iDirection
-     *            Direction to check
-     * @param iFieldName
-     *            Field name
-     * @param iClassNames
-     *            Optional array of class names
-     * @return The found direction if any
+     * @return true if the id is the id of a vertex, i.e. the link of a
+     *         lightweight edge. Only the cluster of the id is looked at, the
+     *         record isn't loaded.
      */
-    protected OPair<Direction, String> getConnection(final Direction iDirection, final String iFieldName, String... iClassNames) {
-        if (iClassNames != null && iClassNames.length == 1 && iClassNames[0].equalsIgnoreCase("E"))
-            // DEFAULT CLASS, TREAT IT AS NO CLASS/LABEL
-            iClassNames = null;
+    private static boolean isVertexId(final OSchema schema, final OIdentifiable oIdentifiable) {
+        final OClass cls = schema.getClassByClusterId(oIdentifiable.getIdentity().getClusterId());
+        return cls != null && cls.isSubClassOf(OClass.VERTEX_CLASS_NAME);
+    }
 
-        if (iDirection == Direction.OUT || iDirection == Direction.BOTH) {
-            // FIELDS THAT STARTS WITH "out_"
-            if (iFieldName.startsWith(CONNECTION_OUT_PREFIX)) {
-                if (iClassNames == null || iClassNames.length == 0)
-                    return new OPair<Direction, String>(Direction.OUT, getConnectionClass(Direction.OUT, iFieldName));
+    /**
+     * @return the ids of the edges of this vertex in the given direction (OUT
+     *         or IN) with one of the given labels, without loading the edges.
+     *         For lightweight edges that's the id of the other vertex.
+     */
+    public List<OIdentifiable> getEdgeIds(final Direction direction, final String... edgeLabels) {
+        if (direction == Direction.BOTH)
+            throw new IllegalArgumentException("Direction not valid");
+
+        final List<OIdentifiable> edgeIds = new ArrayList<>();
+        for (ORidBag bag : edgeBags(direction, edgeLabels))
+            bag.rawIterator().forEachRemaining(edgeIds::add);
+        return edgeIds;
+    }
+
+    /**
+     * @return the number of edges of this vertex in the given direction with
+     *         one of the given labels, read from the sizes of the edge bags
+     *         without loading any edge
+     */
+    public long degree(final Direction direction, final String... edgeLabels) {
+        long degree = 0;
+        for (ORidBag bag : edgeBags(direction, edgeLabels))
+            degree += bag.size();
+        return degree;
+    }
+
+    /**
+     * Passes the ids of the adjacent vertices in the given direction with one
+     * of the given labels to the consumer, packed into longs (see
+     * {@link OrientGraphUtils#packRid(ORID)}). The ids are read from the edge
+     * bags and from the <code>in</code>/<code>out</code> links of the edge
+     * records; no element is created and no vertex is loaded.
+     */
+    public void forEachNeighborRid(final Direction direction, final LongConsumer consumer, final String... labels) {
+        final ODocument doc = getRawDocument();
+        final OSchema schema = graph.database().getMetadata().getImmutableSchemaSnapshot();
 
-                // CHECK AGAINST ALL THE CLASS NAMES
-                for (String clsName : iClassNames) {
-                    clsName = OrientGraphUtils.encodeClassName(clsName);
+        for (String fieldName : connectionFieldNames(doc, direction, labels)) {
+            final Object fieldValue = doc.field(fieldName);
+            if (fieldValue == null)
+                continue;
+            if (!(fieldValue instanceof ORidBag))
+                throw new IllegalStateException("Invalid content found in " + fieldName + " field: " + fieldValue);
 
-                    if (iFieldName.equals(CONNECTION_OUT_PREFIX + clsName))
-                        return new OPair<Direction, String>(Direction.OUT, clsName);
+            final Direction vertexDirection = getConnection(fieldName).getKey().opposite();
+            final Iterator<OIdentifiable> ids = ((ORidBag) fieldValue).rawIterator();
+            while (ids.hasNext()) {
+                final OIdentifiable id = ids.next();
+                if (id == null)
+                    continue;
+                if (isVertexId(schema, id)) {
+                    // lightweight edge, the vertex links to the other vertex directly
+                    consumer.accept(OrientGraphUtils.packRid(id.getIdentity()));
+                    continue;
                 }
+                final Object edge = id.getRecord();
+                final OIdentifiable link = edge instanceof ODocument ? OrientEdge.getConnection((ODocument) edge, vertexDirection) : null;
+                if (link != null)
+                    consumer.accept(OrientGraphUtils.packRid(link.getIdentity()));
             }
         }
+    }
 
-        if (iDirection == Direction.IN || iDirection == Direction.BOTH) {
-            // FIELDS THAT STARTS WITH "in_"
-            if (iFieldName.startsWith(CONNECTION_IN_PREFIX)) {
-                if (iClassNames == null || iClassNames.length == 0)
-                    return new OPair<Direction, String>(Direction.IN, getConnectionClass(Direction.IN, iFieldName));
+    /**
+     * @return the ids of the adjacent vertices in the given direction with
+     *         one of the given labels, packed into longs, see
+     *         {@link #forEachNeighborRid(Direction, LongConsumer, String...)}
+     */
+    public long[] neighborRids(final Direction direction, final String... labels) {
+        // every edge has one adjacent vertex at most
+        final long[] rids = new long[Math.toIntExact(degree(direction, labels))];
+        final int[] size = { 0 };
+        forEachNeighborRid(direction, rid -> rids[size[0]++] = rid, labels);
+        return size[0] == rids.length ? rids : Arrays.copyOf(rids, size[0]);
+    }
 
-                // CHECK AGAINST ALL THE CLASS NAMES
-                for (String clsName : iClassNames) {
+    /**
+     * @return true if this vertex has an edge in the given direction with
+     *         one of the given labels, without loading any edge
+     */
+    public boolean hasEdges(final Direction direction, final String... edgeLabels) {
+        for (ORidBag bag : edgeBags(direction, edgeLabels))
+            if (!bag.isEmpty())
+                return true;
+        return false;
+    }
 
-                    if (iFieldName.equals(CONNECTION_IN_PREFIX + clsName))
-                        return new OPair<Direction, String>(Direction.IN, clsName);
-                }
+    private List<ORidBag> edgeBags(final Direction direction, final String... edgeLabels) {
+        final ODocument doc = getRawDocument();
+        final List<ORidBag> bags = new ArrayList<>();
+        for (String fieldName : connectionFieldNames(doc, direction, edgeLabels)) {
+            final Object fieldValue = doc.field(fieldName);
+            if (fieldValue == null)
+                continue;
+
+            if (fieldValue instanceof ORidBag)
+                bags.add((ORidBag) fieldValue);
+            else
+                throw new IllegalStateException("Invalid content found in " + fieldName + " field: " + fieldValue);
+        }
+        return bags;
+    }
+
+    /**
+     * @return the names of the fields of the document which hold the edges in
+     *         the given direction with one of the given labels. Without labels
+     *         all the fields are classified (see {@link #getConnection(String)}),
+     *         otherwise the field names of the labels are looked up directly.
+     */
+    private List<String> connectionFieldNames(final ODocument doc, final Direction direction, final String... labels) {
+        final List<String> fieldNames = new ArrayList<>();
+        if (labels == null || labels.length == 0 || (labels.length == 1 && labels[0].equalsIgnoreCase(OClass.EDGE_CLASS_NAME))) {
+            // DEFAULT CLASS, TREAT IT AS NO CLASS/LABEL
+            for (String fieldName : doc.fieldNames()) {
+                final OPair<Direction, String> connection = getConnection(fieldName);
+                if (connection != null && (direction == Direction.BOTH || direction == connection.getKey()))
+                    fieldNames.add(fieldName);
             }
+            return fieldNames;
         }
 
-        // NOT FOUND
-        return null;
+        for (String label : labels) {
+            final String[] labelFieldNames = graph.labelFieldNames.computeIfAbsent(label, l -> {
+                final String className = OrientGraphUtils.encodeClassName(l);
+                return new String[] { CONNECTION_OUT_PREFIX + className, CONNECTION_IN_PREFIX + className };
+            });
+            if (direction != Direction.IN)
+                addIfPresent(doc, labelFieldNames[0], fieldNames);
+            if (direction != Direction.OUT)
+                addIfPresent(doc, labelFieldNames[1], fieldNames);
+        }
+        return fieldNames;
+    }
+
+    private static void addIfPresent(final ODocument doc, final String fieldName, final List<String> fieldNames) {
+        if (doc.containsField(fieldName) && !fieldNames.contains(fieldName))
+            fieldNames.add(fieldName);
+    }
+
+    /**
+     * Determines if a field is a connection or not. The result only depends
+     * on the field name, so it's cached by the graph per field name.
+     *
+     * @param iFieldName
+     *            Field name
+     * @return The direction and class of the connection, or null if the
+     *         field isn't a connection
+     */
+    protected OPair<Direction, String> getConnection(final String iFieldName) {
+        final Direction direction;
+        if (iFieldName.startsWith(CONNECTION_OUT_PREFIX))
+            direction = Direction.OUT;
+        else if (iFieldName.startsWith(CONNECTION_IN_PREFIX))
+            direction = Direction.IN;
+        else
+            return null;
+        return graph.connections.computeIfAbsent(iFieldName, fieldName -> new OPair<>(direction, getConnectionClass(direction, fieldName)));
     }
 
     /**
@@ -1,11 +1,9 @@
 package org.apache.tinkerpop.gremlin.orientdb;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.Iterator;
-import java.util.Map;
-import java.util.stream.Stream;
+import java.util.List;
 
 import org.apache.tinkerpop.gremlin.structure.Property;
 import org.apache.tinkerpop.gremlin.structure.T;
@@ -43,23 +41,22 @@ public class OrientVertexProperty<V> extends OrientProperty<V> implements Vertex
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <U> Iterator<Property<U>> properties(String... propertyKeys) {
         if (!hasMetadataDocument())
             return Collections.emptyIterator();
 
-        Map<String, Object> properties = getMetadataDocument().toMap();
-        HashSet<String> keys = new HashSet<>(Arrays.asList(propertyKeys));
-
-        Stream<Map.Entry<String, Object>> entries = StreamUtils.asStream(properties.entrySet().iterator());
-        if (keys.size() > 0) {
-            entries = entries.filter(entry -> keys.contains(entry.getKey()));
+        // read the fields directly instead of copying the document into a map
+        final ODocument metadata = getMetadataDocument();
+        final String[] keys = propertyKeys.length > 0 ? propertyKeys : metadata.fieldNames();
+        final List<Property<U>> properties = new ArrayList<>(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            final String key = keys[i];
+            if (key.startsWith("@") || !metadata.containsField(key) || (propertyKeys.length > 0 && OrientElement.isDuplicate(keys, i)))
+                continue;
+            properties.add(new OrientVertexPropertyProperty<>(key, (U) metadata.field(key), this));
         }
-
-        @SuppressWarnings("unchecked")
-        Stream<Property<U>> propertyStream = entries
-                .filter(entry -> !entry.getKey().startsWith("@rid"))
-                .map(entry -> new OrientVertexPropertyProperty<>(entry.getKey(), (U) entry.getValue(), this));
-        return propertyStream.iterator();
+        return properties.iterator();
     }
 
     private boolean hasMetadataDocument() {
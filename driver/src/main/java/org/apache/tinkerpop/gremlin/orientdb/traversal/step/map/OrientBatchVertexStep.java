@@ -0,0 +1,163 @@
+package org.apache.tinkerpop.gremlin.orientdb.traversal.step.map;
+
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import org.apache.tinkerpop.gremlin.orientdb.OrientGraph;
+import org.apache.tinkerpop.gremlin.orientdb.OrientGraphUtils;
+import org.apache.tinkerpop.gremlin.orientdb.OrientVertex;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces <code>out()</code>, <code>in()</code> and <code>both()</code> if
+ * {@link OrientGraph#CONFIG_VERTEX_STEP_BATCH_SIZE} is set. The edges of a
+ * batch of traversers are loaded together, and then the adjacent vertices,
+ * each sorted by record id in as few storage calls as possible (see
+ * {@link OrientGraph#getRecords(java.util.Collection)}), instead of one
+ * record at a time.
+ */
+public final class OrientBatchVertexStep extends AbstractStep<Vertex, Vertex> {
+
+    private static final long serialVersionUID = 4427093018743562290L;
+
+    private final Direction direction;
+    private final String[] edgeLabels;
+    private final int batchSize;
+    private Iterator<Traverser.Admin<Vertex>> batch = Collections.emptyIterator();
+
+    public OrientBatchVertexStep(final Traversal.Admin<?, ?> traversal, final Direction direction, final String[] edgeLabels, final int batchSize) {
+        super(traversal);
+        this.direction = direction;
+        this.edgeLabels = edgeLabels;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    protected Traverser.Admin<Vertex> processNextStart() {
+        while (!this.batch.hasNext())
+            this.batch = nextBatch().iterator();
+        return this.batch.next();
+    }
+
+    private List<Traverser.Admin<Vertex>> nextBatch() {
+        final List<Traverser.Admin<Vertex>> traversers = new ArrayList<>();
+        // throws a FastNoSuchElementException once all the traversers are processed
+        traversers.add(this.starts.next());
+        while (traversers.size() < this.batchSize && this.starts.hasNext())
+            traversers.add(this.starts.next());
+
+        // the edges of every traverser, in the order they're read from the vertex
+        final List<List<OIdentifiable>> edgeIds = new ArrayList<>(traversers.size());
+        final List<ORID> allEdgeIds = new ArrayList<>();
+        for (Traverser.Admin<Vertex> traverser : traversers) {
+            List<OIdentifiable> ids = traverser.get() instanceof OrientVertex ? edgeIds((OrientVertex) traverser.get()) : Collections.emptyList();
+            edgeIds.add(ids);
+            ids.forEach(id -> allEdgeIds.add(id.getIdentity()));
+        }
+
+        final OrientGraph graph = (OrientGraph) this.getTraversal().getGraph().get();
+        final Map<ORID, ORecord> edges = graph.getRecords(allEdgeIds);
+        final List<ORID> vertexIds = new ArrayList<>();
+        for (ORecord edge : edges.values()) {
+            if (isVertex(edge))
+                continue;
+            if (this.direction != Direction.OUT)
+                vertexIds.add(adjacentVertexId(edge, Direction.OUT));
+            if (this.direction != Direction.IN)
+                vertexIds.add(adjacentVertexId(edge, Direction.IN));
+        }
+        vertexIds.removeIf(id -> id == null);
+        final Map<ORID, ORecord> vertices = graph.getRecords(vertexIds);
+
+        final List<Traverser.Admin<Vertex>> results = new ArrayList<>();
+        for (int i = 0; i < traversers.size(); i++) {
+            final Traverser.Admin<Vertex> traverser = traversers.get(i);
+            if (!(traverser.get() instanceof OrientVertex)) {
+                traverser.get().vertices(this.direction, this.edgeLabels).forEachRemaining(vertex -> results.add(traverser.split(vertex, this)));
+                continue;
+            }
+
+            final ORID id = ((OrientVertex) traverser.get()).id();
+            for (OIdentifiable edgeId : edgeIds.get(i)) {
+                final ORecord edge = edges.get(edgeId.getIdentity());
+                if (edge == null)
+                    continue;
+                if (isVertex(edge)) {
+                    // lightweight edge, the vertex links to the other vertex directly
+                    results.add(traverser.split(new OrientVertex(graph, edge), this));
+                    continue;
+                }
+                // the vertex is the other end of the edge, unless it's a loop
+                final ORID outId = adjacentVertexId(edge, Direction.OUT);
+                final ORID vertexId = this.direction == Direction.IN || (this.direction == Direction.BOTH && !id.equals(outId))
+                        ? outId : adjacentVertexId(edge, Direction.IN);
+                final ORecord vertex = vertexId == null ? null : vertices.get(vertexId);
+                if (vertex != null)
+                    results.add(traverser.split(new OrientVertex(graph, vertex), this));
+            }
+        }
+        return results;
+    }
+
+    private List<OIdentifiable> edgeIds(final OrientVertex vertex) {
+        if (this.direction != Direction.BOTH)
+            return vertex.getEdgeIds(this.direction, this.edgeLabels);
+        final List<OIdentifiable> ids = new ArrayList<>(vertex.getEdgeIds(Direction.OUT, this.edgeLabels));
+        ids.addAll(vertex.getEdgeIds(Direction.IN, this.edgeLabels));
+        return ids;
+    }
+
+    private static boolean isVertex(final ORecord record) {
+        final OClass cls = ((ODocument) record).getSchemaClass();
+        return cls != null && cls.isSubClassOf(OClass.VERTEX_CLASS_NAME);
+    }
+
+    private static ORID adjacentVertexId(final ORecord edge, final Direction direction) {
+        final Object link = ((ODocument) edge).rawField(direction == Direction.OUT ? OrientGraphUtils.CONNECTION_OUT : OrientGraphUtils.CONNECTION_IN);
+        return link instanceof OIdentifiable ? ((OIdentifiable) link).getIdentity() : null;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public String[] getEdgeLabels() {
+        return edgeLabels;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.batch = Collections.emptyIterator();
+    }
+
+    @Override
+    public OrientBatchVertexStep clone() {
+        final OrientBatchVertexStep clone = (OrientBatchVertexStep) super.clone();
+        clone.batch = Collections.emptyIterator();
+        return clone;
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.stepString(this, this.direction, Arrays.asList(this.edgeLabels), this.batchSize);
+    }
+}
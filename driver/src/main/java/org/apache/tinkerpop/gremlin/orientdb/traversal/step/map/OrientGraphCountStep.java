@@ -0,0 +1,69 @@
+package org.apache.tinkerpop.gremlin.orientdb.traversal.step.map;
+
+import org.apache.tinkerpop.gremlin.orientdb.traversal.step.sideEffect.OrientGraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+
+/**
+ * Replaces <code>g.V()...count()</code> and <code>g.E()...count()</code>, so
+ * that the count can be taken from the class or index counts instead of
+ * loading every element.
+ *
+ * @see OrientGraphStep#count()
+ */
+public final class OrientGraphCountStep<S> extends AbstractStep<S, Long> {
+
+    private static final long serialVersionUID = -3296257478652497637L;
+
+    private OrientGraphStep<?, ? extends Element> graphStep;
+    private boolean done = false;
+
+    public OrientGraphCountStep(final Traversal.Admin<?, ?> traversal, final OrientGraphStep<?, ? extends Element> graphStep) {
+        super(traversal);
+        this.graphStep = graphStep;
+    }
+
+    @Override
+    protected Traverser.Admin<Long> processNextStart() {
+        if (!this.done) {
+            this.done = true;
+            return this.getTraversal().getTraverserGenerator().generate(this.graphStep.count(), (Step) this, 1L);
+        }
+        throw FastNoSuchElementException.instance();
+    }
+
+    public OrientGraphStep<?, ? extends Element> getGraphStep() {
+        return graphStep;
+    }
+
+    @Override
+    public void setTraversal(final Traversal.Admin<?, ?> traversal) {
+        super.setTraversal(traversal);
+        // the graph step isn't part of the traversal anymore, but still needs its graph
+        this.graphStep.setTraversal(traversal);
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.done = false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public OrientGraphCountStep<S> clone() {
+        final OrientGraphCountStep<S> clone = (OrientGraphCountStep<S>) super.clone();
+        clone.graphStep = (OrientGraphStep<?, ? extends Element>) this.graphStep.clone();
+        return clone;
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.stepString(this, this.graphStep);
+    }
+}
@@ -0,0 +1,83 @@
+package org.apache.tinkerpop.gremlin.orientdb.traversal.step.map;
+
+import org.apache.tinkerpop.gremlin.orientdb.traversal.step.sideEffect.OrientGraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+
+import java.util.Map;
+
+/**
+ * Replaces <code>g.V()...groupCount().by(label)</code> and
+ * <code>g.V()...groupCount().by(key)</code> (or the equivalent
+ * <code>group().by(...).by(count())</code>), so that the counts can be taken
+ * from the class or index counts, or aggregated cluster by cluster without
+ * passing every element through the traversal.
+ *
+ * @see OrientGraphStep#groupCountByLabel()
+ * @see OrientGraphStep#groupCountByValue(String)
+ */
+public final class OrientGraphGroupCountStep<S, E> extends AbstractStep<S, Map<E, Long>> {
+
+    private static final long serialVersionUID = 2918472210557938564L;
+
+    private OrientGraphStep<?, ? extends Element> graphStep;
+    /** property key to group by, or null to group by label */
+    private final String key;
+    private boolean done = false;
+
+    public OrientGraphGroupCountStep(final Traversal.Admin<?, ?> traversal, final OrientGraphStep<?, ? extends Element> graphStep, final String key) {
+        super(traversal);
+        this.graphStep = graphStep;
+        this.key = key;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Traverser.Admin<Map<E, Long>> processNextStart() {
+        if (!this.done) {
+            this.done = true;
+            Map<Object, Long> counts = this.key == null ? this.graphStep.groupCountByLabel() : this.graphStep.groupCountByValue(this.key);
+            return this.getTraversal().getTraverserGenerator().generate((Map<E, Long>) (Map) counts, (Step) this, 1L);
+        }
+        throw FastNoSuchElementException.instance();
+    }
+
+    public OrientGraphStep<?, ? extends Element> getGraphStep() {
+        return graphStep;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    @Override
+    public void setTraversal(final Traversal.Admin<?, ?> traversal) {
+        super.setTraversal(traversal);
+        this.graphStep.setTraversal(traversal);
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.done = false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public OrientGraphGroupCountStep<S, E> clone() {
+        final OrientGraphGroupCountStep<S, E> clone = (OrientGraphGroupCountStep<S, E>) super.clone();
+        clone.graphStep = (OrientGraphStep<?, ? extends Element>) this.graphStep.clone();
+        return clone;
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.stepString(this, this.graphStep, this.key == null ? T.label : this.key);
+    }
+}
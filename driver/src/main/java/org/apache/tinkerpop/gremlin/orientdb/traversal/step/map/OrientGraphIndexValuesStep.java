@@ -0,0 +1,100 @@
+package org.apache.tinkerpop.gremlin.orientdb.traversal.step.map;
+
+import org.apache.tinkerpop.gremlin.orientdb.OrientGraph;
+import org.apache.tinkerpop.gremlin.orientdb.OrientIndexQuery;
+import org.apache.tinkerpop.gremlin.orientdb.traversal.step.sideEffect.OrientGraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Replaces <code>g.V().hasLabel(l).values(key)</code> (optionally followed
+ * by <code>dedup()</code>) with the keys of an index on the key, so that no
+ * element is loaded.
+ *
+ * @see OrientGraphStep#findCoveringIndexQuery(String)
+ */
+public final class OrientGraphIndexValuesStep<S, E> extends AbstractStep<S, E> {
+
+    private static final long serialVersionUID = 5368174532217392413L;
+
+    private OrientGraphStep<?, ? extends Element> graphStep;
+    private final OrientIndexQuery indexQuery;
+    private final String key;
+    private final boolean dedup;
+    private Iterator<Map.Entry<Object, Long>> keyCounts = null;
+    /** the index range may contain more keys than the predicates on the key accept */
+    private List<HasContainer> keyContainers = null;
+
+    public OrientGraphIndexValuesStep(final Traversal.Admin<?, ?> traversal, final OrientGraphStep<?, ? extends Element> graphStep,
+            final OrientIndexQuery indexQuery, final String key, final boolean dedup) {
+        super(traversal);
+        this.graphStep = graphStep;
+        this.indexQuery = indexQuery;
+        this.key = key;
+        this.dedup = dedup;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Traverser.Admin<E> processNextStart() {
+        if (this.keyCounts == null) {
+            this.keyCounts = ((OrientGraph) this.getTraversal().getGraph().get()).getIndexKeyCounts(this.indexQuery);
+            this.keyContainers = this.graphStep.getHasContainers().stream()
+                    .filter(c -> this.key.equals(c.getKey()))
+                    .collect(Collectors.toList());
+        }
+
+        while (this.keyCounts.hasNext()) {
+            Map.Entry<Object, Long> keyCount = this.keyCounts.next();
+            if (this.keyContainers.stream().allMatch(c -> c.getPredicate().test(keyCount.getKey())))
+                // every element with the key has the value, unless duplicates are removed
+                return this.getTraversal().getTraverserGenerator().generate((E) keyCount.getKey(), (Step) this, this.dedup ? 1L : keyCount.getValue());
+        }
+        throw FastNoSuchElementException.instance();
+    }
+
+    public OrientIndexQuery getIndexQuery() {
+        return indexQuery;
+    }
+
+    public boolean isDedup() {
+        return dedup;
+    }
+
+    @Override
+    public void setTraversal(final Traversal.Admin<?, ?> traversal) {
+        super.setTraversal(traversal);
+        this.graphStep.setTraversal(traversal);
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.keyCounts = null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public OrientGraphIndexValuesStep<S, E> clone() {
+        final OrientGraphIndexValuesStep<S, E> clone = (OrientGraphIndexValuesStep<S, E>) super.clone();
+        clone.graphStep = (OrientGraphStep<?, ? extends Element>) this.graphStep.clone();
+        clone.keyCounts = null;
+        return clone;
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.stepString(this, this.graphStep, this.key, this.dedup ? "dedup" : "", this.indexQuery);
+    }
+}
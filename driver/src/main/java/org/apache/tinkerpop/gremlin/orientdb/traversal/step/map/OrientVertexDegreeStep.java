@@ -0,0 +1,77 @@
+package org.apache.tinkerpop.gremlin.orientdb.traversal.step.map;
+
+import org.apache.tinkerpop.gremlin.orientdb.OrientVertex;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+
+import java.util.Arrays;
+
+/**
+ * Replaces an <code>out()</code>, <code>outE()</code> (etc.) step whose
+ * results are only counted, e.g. <code>out("follows").count()</code>, or
+ * only checked for existence, e.g. <code>where(outE("x"))</code> or
+ * <code>not(inE())</code>. Instead of loading the edges, the vertex itself
+ * is passed on with its bulk multiplied by the number of edges (or
+ * unchanged if it has an edge at all), which is read from the size of the
+ * edge bags. Vertices without edges are filtered out.
+ */
+public final class OrientVertexDegreeStep<E> extends AbstractStep<Vertex, E> {
+
+    private static final long serialVersionUID = 7782810367521138864L;
+
+    private final Direction direction;
+    private final String[] edgeLabels;
+    /** true if only the existence of an edge matters, not the number of edges */
+    private final boolean existence;
+
+    public OrientVertexDegreeStep(final Traversal.Admin<?, ?> traversal, final Direction direction, final String[] edgeLabels, final boolean existence) {
+        super(traversal);
+        this.direction = direction;
+        this.edgeLabels = edgeLabels;
+        this.existence = existence;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Traverser.Admin<E> processNextStart() {
+        while (true) {
+            final Traverser.Admin<Vertex> traverser = this.starts.next();
+            final Vertex vertex = traverser.get();
+            if (this.existence) {
+                boolean hasEdges = vertex instanceof OrientVertex ? ((OrientVertex) vertex).hasEdges(this.direction, this.edgeLabels)
+                        : vertex.edges(this.direction, this.edgeLabels).hasNext();
+                if (hasEdges)
+                    return (Traverser.Admin<E>) traverser;
+            } else {
+                long degree = vertex instanceof OrientVertex ? ((OrientVertex) vertex).degree(this.direction, this.edgeLabels)
+                        : IteratorUtils.count(vertex.edges(this.direction, this.edgeLabels));
+                if (degree > 0) {
+                    traverser.setBulk(traverser.bulk() * degree);
+                    return (Traverser.Admin<E>) traverser;
+                }
+            }
+        }
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public String[] getEdgeLabels() {
+        return edgeLabels;
+    }
+
+    public boolean isExistence() {
+        return existence;
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.stepString(this, this.direction, Arrays.asList(this.edgeLabels), this.existence ? "exists" : "degree");
+    }
+}
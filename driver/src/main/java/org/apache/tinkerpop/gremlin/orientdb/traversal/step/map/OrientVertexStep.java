@@ -0,0 +1,122 @@
+package org.apache.tinkerpop.gremlin.orientdb.traversal.step.map;
+
+import org.apache.tinkerpop.gremlin.orientdb.OrientEdge;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.FlatMapStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Replaces <code>outE(labels).has(...)</code> (and <code>inE</code>,
+ * <code>bothE</code>), optionally followed by <code>inV()</code>,
+ * <code>outV()</code>, <code>bothV()</code> or <code>otherV()</code>. The
+ * predicates are tested on the edges as they are read from the vertex, and
+ * only the endpoints of the matching edges are created, straight from the
+ * links of the edges instead of looking them up by id.
+ */
+public final class OrientVertexStep<E extends Element> extends FlatMapStep<Vertex, E> implements HasContainerHolder {
+
+    private static final long serialVersionUID = -6283047295312856409L;
+
+    private final Direction direction;
+    private final String[] edgeLabels;
+    private List<HasContainer> hasContainers = new ArrayList<>();
+    /** the endpoints of the edges to return, or null to return the edges */
+    private final Direction vertexDirection;
+    /** true to return the other endpoint of the edges, i.e. otherV() */
+    private final boolean otherVertex;
+
+    public OrientVertexStep(final Traversal.Admin<?, ?> traversal, final Direction direction, final String[] edgeLabels,
+            final Direction vertexDirection, final boolean otherVertex) {
+        super(traversal);
+        this.direction = direction;
+        this.edgeLabels = edgeLabels;
+        this.vertexDirection = vertexDirection;
+        this.otherVertex = otherVertex;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Iterator<E> flatMap(final Traverser.Admin<Vertex> traverser) {
+        final Vertex vertex = traverser.get();
+        Iterator<Edge> edges = vertex.edges(this.direction, this.edgeLabels);
+        if (!this.hasContainers.isEmpty())
+            edges = IteratorUtils.filter(edges, edge -> HasContainer.testAll(edge, this.hasContainers));
+
+        if (this.otherVertex)
+            return (Iterator<E>) IteratorUtils.map(edges, edge -> otherVertex(vertex, edge));
+        if (this.vertexDirection == null)
+            return (Iterator<E>) edges;
+        if (this.vertexDirection == Direction.BOTH)
+            return (Iterator<E>) IteratorUtils.flatMap(edges,
+                    edge -> IteratorUtils.of(vertex(edge, Direction.OUT), vertex(edge, Direction.IN)));
+        return (Iterator<E>) IteratorUtils.map(edges, edge -> vertex(edge, this.vertexDirection));
+    }
+
+    private Vertex otherVertex(final Vertex vertex, final Edge edge) {
+        if (this.direction != Direction.BOTH)
+            return vertex(edge, this.direction.opposite());
+        // the edge may start at the vertex or end at it
+        final Vertex outVertex = vertex(edge, Direction.OUT);
+        return outVertex.id().equals(vertex.id()) ? vertex(edge, Direction.IN) : outVertex;
+    }
+
+    private static Vertex vertex(final Edge edge, final Direction direction) {
+        if (edge instanceof OrientEdge)
+            // the edge links to the vertex, which is loaded when it's read
+            return ((OrientEdge) edge).getVertex(direction);
+        return edge.vertices(direction).next();
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public String[] getEdgeLabels() {
+        return edgeLabels;
+    }
+
+    public Direction getVertexDirection() {
+        return vertexDirection;
+    }
+
+    public boolean isOtherVertex() {
+        return otherVertex;
+    }
+
+    @Override
+    public List<HasContainer> getHasContainers() {
+        return Collections.unmodifiableList(this.hasContainers);
+    }
+
+    @Override
+    public void addHasContainer(final HasContainer hasContainer) {
+        this.hasContainers.add(hasContainer);
+    }
+
+    @Override
+    public OrientVertexStep<E> clone() {
+        final OrientVertexStep<E> clone = (OrientVertexStep<E>) super.clone();
+        clone.hasContainers = new ArrayList<>(this.hasContainers);
+        return clone;
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.stepString(this, this.direction, Arrays.asList(this.edgeLabels), this.hasContainers,
+                this.otherVertex ? "otherV" : this.vertexDirection);
+    }
+}
@@ -2,35 +2,55 @@ package org.apache.tinkerpop.gremlin.orientdb.traversal.step.sideEffect;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.collate.OCaseInsensitiveCollate;
+import com.orientechnologies.orient.core.collate.OCollate;
+import com.orientechnologies.orient.core.collate.ODefaultCollate;
+import com.orientechnologies.orient.core.index.OCompositeKey;
 import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.index.OIndexCursor;
+import com.orientechnologies.orient.core.index.OIndexDefinitionMultiValue;
 import com.orientechnologies.orient.core.index.OIndexManagerProxy;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OProperty;
+import com.orientechnologies.orient.core.metadata.schema.OSchema;
+import com.orientechnologies.orient.core.metadata.schema.OType;
 import org.apache.tinkerpop.gremlin.orientdb.OrientGraph;
 import org.apache.tinkerpop.gremlin.orientdb.OrientIndexQuery;
+import org.apache.tinkerpop.gremlin.orientdb.OrientIndexStatistics;
+import org.apache.tinkerpop.gremlin.orientdb.OrientP;
 import org.apache.tinkerpop.gremlin.process.traversal.Compare;
 import org.apache.tinkerpop.gremlin.process.traversal.Contains;
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.util.AndP;
+import org.apache.tinkerpop.gremlin.process.traversal.util.ConnectiveP;
+import org.apache.tinkerpop.gremlin.process.traversal.util.OrP;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
-import org.apache.tinkerpop.gremlin.util.function.TriFunction;
 import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
-import org.javatuples.Pair;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -40,10 +60,18 @@ public class OrientGraphStep<S, E extends Element> extends GraphStep<S, E> imple
 
     private final List<HasContainer> hasContainers = new ArrayList<>();
 
+    /** number of matching elements to skip */
+    private long offset = 0;
+    /** maximum number of elements to read (including the skipped ones), -1 for no limit */
+    private long limit = -1;
+    /** key to return the elements ordered by, null for any order */
+    private String orderKey = null;
+    private boolean orderAscending = true;
+
     public OrientGraphStep(final GraphStep<S, E> originalGraphStep) {
         super(originalGraphStep.getTraversal(), originalGraphStep.getReturnClass(), originalGraphStep.isStartStep(), originalGraphStep.getIds());
         originalGraphStep.getLabels().forEach(this::addLabel);
-        this.setIteratorSupplier(() -> (Iterator<E>) (isVertexStep() ? this.vertices() : this.edges()));
+        this.setIteratorSupplier(() -> this.ranged((Iterator<E>) (isVertexStep() ? this.vertices() : this.edges())));
     }
 
     private boolean isVertexStep() {
@@ -51,11 +79,40 @@ public class OrientGraphStep<S, E extends Element> extends GraphStep<S, E> imple
     }
 
     private Iterator<? extends Vertex> vertices() {
-        return elements(OrientGraph::vertices, OrientGraph::getIndexedVertices, OrientGraph::vertices);
+        return elements(OrientGraph::vertices, OrientGraph::getIndexedVertices, OrientGraph::getVerticesOfClass, OrientGraph::vertices);
     }
 
     private Iterator<? extends Edge> edges() {
-        return elements(OrientGraph::edges, OrientGraph::getIndexedEdges, OrientGraph::edges);
+        final List<String> lightweightLabels = findLightweightEdgeLabels();
+        if (lightweightLabels.isEmpty())
+            return elements(OrientGraph::edges, OrientGraph::getIndexedEdges, OrientGraph::getEdgesOfClass, OrientGraph::getEdgesOfClasses);
+
+        // lightweight edges are in no class or index, they're found by scanning the vertices
+        final OrientGraph graph = getGraph();
+        final Iterator<Edge> lightweightEdges = this.filtered(IteratorUtils.map(graph.getLightweightEdges(lightweightLabels), edge -> (Edge) edge));
+        final Iterator<Edge> edges = IteratorUtils.map(
+                unorderedElements(graph, OrientGraph::getIndexedEdges, OrientGraph::getEdgesOfClass, OrientGraph::getEdgesOfClasses),
+                edge -> (Edge) edge);
+        final Iterator<Edge> allEdges = IteratorUtils.concat(edges, lightweightEdges);
+        return this.orderKey != null ? this.sorted(allEdges) : allEdges;
+    }
+
+    /**
+     * @return the lightweight edge labels (see
+     *         {@link OrientGraph#CONFIG_LIGHTWEIGHT_EDGE_LABELS}) whose edges
+     *         can match the has() predicates of this step. Lightweight edges
+     *         have no properties, so only the label and the id can match.
+     */
+    private List<String> findLightweightEdgeLabels() {
+        if (isVertexStep() || (this.ids != null && this.ids.length > 0))
+            // graph.edges(ids) resolves the ids of lightweight edges
+            return Collections.emptyList();
+        final List<String> labels = getGraph().getLightweightEdgeLabels();
+        if (labels.isEmpty() || !this.hasContainers.stream().allMatch(c -> isLabelKey(c.getKey()) || T.id.getAccessor().equals(c.getKey())))
+            return Collections.emptyList();
+
+        final Set<String> classLabels = findClassLabelsInHasContainers();
+        return classLabels.isEmpty() ? labels : labels.stream().filter(classLabels::contains).collect(Collectors.toList());
     }
 
     /**
@@ -67,8 +124,13 @@ public class OrientGraphStep<S, E extends Element> extends GraphStep<S, E> imple
      *            Function that will return an iterator over all the
      *            vertices/edges in the graph that have the specific IDs
      * @param getElementsByIndex
-     *            Function that returns a stream of all the vertices/edges in
-     *            the graph that have an indexed property with a specific value
+     *            Function that returns an iterator of all the vertices/edges
+     *            in the graph found by the given index queries, i.e. that have
+     *            an indexed property with a specific value or within a range
+     *            of values
+     * @param getElementsOfClass
+     *            Function that returns a stream of the vertices/edges of
+     *            exactly the given class, i.e. a scan of its clusters
      * @param getAllElements
      *            Function that returns an iterator of all the vertices or all
      *            the edges (i.e. full scan)
@@ -76,34 +138,406 @@ public class OrientGraphStep<S, E extends Element> extends GraphStep<S, E> imple
      */
     private <ElementType extends Element> Iterator<? extends ElementType> elements(
             BiFunction<OrientGraph, Object[], Iterator<ElementType>> getElementsByIds,
-            TriFunction<OrientGraph, OIndex<Object>, Iterator<Object>, Stream<? extends ElementType>> getElementsByIndex,
+            BiFunction<OrientGraph, Collection<OrientIndexQuery>, Iterator<? extends ElementType>> getElementsByIndex,
+            BiFunction<OrientGraph, String, Stream<? extends ElementType>> getElementsOfClass,
             Function<OrientGraph, Iterator<ElementType>> getAllElements) {
         final OrientGraph graph = getGraph();
 
         if (this.ids != null && this.ids.length > 0) {
             /** Got some element IDs, so just get the elements using those */
-            return this.iteratorList(getElementsByIds.apply(graph, this.ids));
+            final Iterator<ElementType> elements = this.filtered(getElementsByIds.apply(graph, this.ids));
+            return this.orderKey != null ? this.sorted(elements) : elements;
+        } else if (this.orderKey != null) {
+            Optional<OrientIndexQuery> orderQuery = findOrderQuery();
+            if (orderQuery.isPresent() && containsAllElements(orderQuery.get().index)) {
+                OLogManager.instance().debug(this, "using " + orderQuery.get() + " for the order of the elements");
+                return this.filtered(getElementsByIndex.apply(graph, Collections.singletonList(orderQuery.get())));
+            }
+            // the index was dropped since the traversal was optimized, or
+            // there are elements without the key, which fail to be ordered
+            OLogManager.instance().debug(this, "no index to order all elements by [" + this.orderKey + "], sorting them in memory");
+            return this.sorted(unorderedElements(graph, getElementsByIndex, getElementsOfClass, getAllElements));
         } else {
-            /** Have no element IDs. See if there's an indexed property to use */
-            Set<OrientIndexQuery> indexQueryOptions = findIndex();
+            return unorderedElements(graph, getElementsByIndex, getElementsOfClass, getAllElements);
+        }
+    }
+
+    private <ElementType extends Element> Iterator<? extends ElementType> unorderedElements(
+            OrientGraph graph,
+            BiFunction<OrientGraph, Collection<OrientIndexQuery>, Iterator<? extends ElementType>> getElementsByIndex,
+            BiFunction<OrientGraph, String, Stream<? extends ElementType>> getElementsOfClass,
+            Function<OrientGraph, Iterator<ElementType>> getAllElements) {
+        /** See if there's an indexed property to use */
+        Set<OrientIndexQuery> indexQueryOptions = findIndex();
+
+        if (!indexQueryOptions.isEmpty()) {
+            OLogManager.instance().debug(this, "using " + indexQueryOptions);
+            return this.filtered(getElementsByIndex.apply(graph, indexQueryOptions));
+        }
+
+        Optional<List<String>> labelClasses = findLabelClasses();
+        if (labelClasses.isPresent()) {
+            // only the clusters of the labels' classes are read
+            OLogManager.instance().debug(this, "scanning classes " + labelClasses.get());
+            Iterator<ElementType> classElements = IteratorUtils.flatMap(labelClasses.get().iterator(),
+                    className -> getElementsOfClass.apply(graph, className).<ElementType> map(e -> e).iterator());
+            return this.filtered(classElements);
+        } else {
+            OLogManager.instance().warn(this, "scanning through all elements without using an index for Traversal " + getTraversal());
+            return this.filtered(getAllElements.apply(graph));
+        }
+    }
+
+    /**
+     * Finds an index to read the elements of this step in the order of the
+     * given key from, i.e. an ordered single field index with the default
+     * collate on the class of the (only) label.
+     */
+    public Optional<OIndex<?>> findOrderIndex(String key) {
+        Set<String> labels = findClassLabelsInHasContainers();
+        if (labels.size() != 1)
+            return Optional.empty();
+
+        final OrientGraph graph = getGraph();
+        final String baseClassName = isVertexStep() ? OClass.VERTEX_CLASS_NAME : OClass.EDGE_CLASS_NAME;
+        final String className = graph.labelToClassName(labels.iterator().next(), baseClassName);
+        final OClass cls = graph.database().getMetadata().getSchema().getClass(className);
+        if (cls == null || !cls.isSubClassOf(baseClassName))
+            return Optional.empty();
+
+        return graph.database().getMetadata().getIndexManager().getClassIndexes(className).stream()
+                .filter(index -> index.getDefinition().getFields().equals(Collections.singletonList(key)))
+                .filter(index -> index.supportsOrderedIterations() && index.getKeyTypes().length == 1)
+                // a multi value index has an entry per item of a collection
+                .filter(index -> !(index.getDefinition() instanceof OIndexDefinitionMultiValue))
+                .filter(index -> isDefaultCollate(index.getDefinition().getCollate()))
+                .<OIndex<?>> map(index -> index)
+                .findFirst();
+    }
+
+    /**
+     * Finds the lookup of an index whose keys are exactly the values of the
+     * given key of the elements of this step, so that the values can be read
+     * from the index without loading any element. That's the case for a
+     * single label whose class has no subclasses (the index contains the
+     * subclasses as well), a typed property (the index converts the values to
+     * its key type) and an index without collate. The has() predicates may
+     * only test the key, they're applied to the index keys.
+     */
+    public Optional<OrientIndexQuery> findCoveringIndexQuery(String key) {
+        if ((this.ids != null && this.ids.length > 0) || this.offset > 0 || this.limit >= 0 || this.orderKey != null)
+            return Optional.empty();
+
+        final OrientGraph graph = getGraph();
+        if (graph.database().getTransaction().getEntryCount() > 0)
+            // the index cursors don't contain the pending changes of the transaction
+            return Optional.empty();
+
+        Set<String> labels = findClassLabelsInHasContainers();
+        if (labels.size() != 1 || !this.hasContainers.stream().allMatch(c -> isLabelKey(c.getKey())
+                || (key.equals(c.getKey()) && isRangePredicate(c.getPredicate()))))
+            return Optional.empty();
+
+        final String baseClassName = isVertexStep() ? OClass.VERTEX_CLASS_NAME : OClass.EDGE_CLASS_NAME;
+        final String className = graph.labelToClassName(labels.iterator().next(), baseClassName);
+        final OClass cls = graph.database().getMetadata().getSchema().getClass(className);
+        if (cls == null || !cls.isSubClassOf(baseClassName) || !cls.getSubclasses().isEmpty() || cls.getProperty(key) == null)
+            return Optional.empty();
+
+        final OType propertyType = cls.getProperty(key).getType();
+        Optional<OIndex<?>> index = findOrderIndex(key).filter(idx -> idx.getKeyTypes()[0] == propertyType);
+        if (!index.isPresent())
+            return Optional.empty();
+
+        return Optional.of(keyRangeQuery(index.get(), key, true));
+    }
+
+    /**
+     * Builds the lookup of the elements in the order of {@link #orderKey}. A
+     * single range predicate on the key limits the lookup to that range.
+     */
+    private Optional<OrientIndexQuery> findOrderQuery() {
+        Optional<OIndex<?>> index = findOrderIndex(this.orderKey);
+        if (!index.isPresent())
+            return Optional.empty();
+
+        return Optional.of(keyRangeQuery(index.get(), this.orderKey, this.orderAscending));
+    }
+
+    /**
+     * Elements without the order key aren't in the index, but ordering them
+     * by the key fails. So the index is only used if it contains every
+     * element of this step: either a has() predicate on the key filters out
+     * the elements without it, or every record of the indexed class has a
+     * key in the index.
+     */
+    private boolean containsAllElements(OIndex<?> index) {
+        if (this.hasContainers.stream().anyMatch(c -> this.orderKey.equals(c.getKey())))
+            return true;
+
+        final OrientGraph graph = getGraph();
+        if (graph.database().getTransaction().getEntryCount() > 0 || !index.getDefinition().isNullValuesIgnored())
+            // the index size doesn't contain the pending changes of the
+            // transaction, and it counts the records without the key if
+            // null values are indexed
+            return false;
+        final OClass cls = graph.database().getMetadata().getSchema().getClass(index.getDefinition().getClassName());
+        return cls != null && index.getSize() == cls.count(true);
+    }
+
+    /**
+     * @return a lookup of the range requested by the range predicates on the
+     *         key, or of the whole index if that isn't a single range
+     */
+    private OrientIndexQuery keyRangeQuery(OIndex<?> index, String key, boolean ascending) {
+        List<KeyRange> ranges = findKeyRanges(key);
+        boolean prefixOnNonStringKey = this.hasContainers.stream()
+                .anyMatch(c -> key.equals(c.getKey()) && containsPrefixPredicate(c.getPredicate())) && !isStringIndex(index);
+        if (ranges.size() != 1 || prefixOnNonStringKey)
+            return new OrientIndexQuery(index, null, false, null, false, ascending);
+
+        KeyRange range = ranges.get(0);
+        return new OrientIndexQuery(index, range.from, range.fromInclusive, range.to, range.toInclusive, ascending);
+    }
+
+    /**
+     * Counts the elements of this step. Label filters are answered from the
+     * class counts and a single indexed key from the index, as long as that
+     * gives exactly the same result as filtering the elements. Everything
+     * else is counted by iterating over the elements.
+     */
+    public long count() {
+        return countWithoutLoading().orElseGet(() -> IteratorUtils.count(this.iteratorSupplier.get()));
+    }
+
+    private Optional<Long> countWithoutLoading() {
+        final OrientGraph graph = getGraph();
+        graph.makeActive();
 
-            if (!indexQueryOptions.isEmpty()) {
-                List<ElementType> elements = new ArrayList<>();
+        if ((this.ids != null && this.ids.length > 0) || this.offset > 0 || this.limit >= 0)
+            return Optional.empty();
+        if (graph.database().getTransaction().getEntryCount() > 0)
+            // class and index counts don't contain the pending changes of the current transaction
+            return Optional.empty();
+        if (!findLightweightEdgeLabels().isEmpty())
+            // lightweight edges aren't counted by any class or index
+            return Optional.empty();
 
-                indexQueryOptions.forEach(indexQuery -> {
-                    OLogManager.instance().debug(this, "using " + indexQuery);
-                    Stream<? extends ElementType> indexedElements = getElementsByIndex.apply(graph, indexQuery.index,
-                            indexQuery.values);
-                    elements.addAll(indexedElements.filter(element -> HasContainer.testAll(element, this.hasContainers))
-                            .collect(Collectors.<ElementType> toList()));
-                });
+        final OSchema schema = graph.database().getMetadata().getSchema();
+        final String baseClassName = isVertexStep() ? OClass.VERTEX_CLASS_NAME : OClass.EDGE_CLASS_NAME;
+        final List<HasContainer> labelContainers = this.hasContainers.stream().filter(c -> isLabelKey(c.getKey())).collect(Collectors.toList());
+        final List<HasContainer> propertyContainers = this.hasContainers.stream().filter(c -> !isLabelKey(c.getKey())).collect(Collectors.toList());
 
-                return elements.iterator();
+        if (labelContainers.isEmpty())
+            return propertyContainers.isEmpty() ? Optional.of(schema.getClass(baseClassName).count(true)) : Optional.empty();
+
+        BiPredicate<?, ?> labelPredicate = labelContainers.get(0).getPredicate().getBiPredicate();
+        if (labelContainers.size() > 1 || (labelPredicate != Compare.eq && labelPredicate != Contains.within))
+            return Optional.empty();
+
+        long count = 0;
+        for (String label : findClassLabelsInHasContainers()) {
+            if (label.equals(Vertex.DEFAULT_LABEL) || label.equals(Edge.DEFAULT_LABEL))
+                // elements of the base classes, that's not a single class
+                return Optional.empty();
+
+            OClass cls = schema.getClass(graph.labelToClassName(label, baseClassName));
+            if (cls == null || !cls.isSubClassOf(baseClassName))
+                continue;
+
+            if (propertyContainers.isEmpty()) {
+                // the label is the exact class, subclasses have their own label
+                count += cls.count(false);
             } else {
-                OLogManager.instance().warn(this, "scanning through all elements without using an index for Traversal " + getTraversal());
-                return this.iteratorList(getAllElements.apply(graph));
+                Optional<Long> indexCount = countInIndex(cls, propertyContainers);
+                if (!indexCount.isPresent())
+                    return Optional.empty();
+                count += indexCount.get();
+            }
+        }
+        return Optional.of(count);
+    }
+
+    /**
+     * Counts the entries of an index for eq, within or range predicates on
+     * a single key. Only possible if the index holds exactly the elements of
+     * the class (no subclasses), doesn't transform the keys (default collate)
+     * and the keys have the type of the requested values.
+     */
+    private Optional<Long> countInIndex(OClass cls, List<HasContainer> containers) {
+        final String key = containers.get(0).getKey();
+        final OProperty property = cls.getProperty(key);
+        if (property == null || !cls.getSubclasses().isEmpty() || !containers.stream().allMatch(c -> key.equals(c.getKey())))
+            return Optional.empty();
+
+        Optional<OIndex<?>> index = cls.getClassIndexes().stream()
+                .filter(idx -> idx.getDefinition().getFields().equals(Collections.singletonList(key)))
+                .filter(idx -> idx.getKeyTypes().length == 1 && idx.getKeyTypes()[0] == property.getType())
+                .filter(idx -> isDefaultCollate(idx.getDefinition().getCollate()))
+                .findFirst();
+        if (!index.isPresent())
+            return Optional.empty();
+
+        final Class<?> keyClass = property.getType().getDefaultJavaType();
+        if (containers.size() == 1 && isEqualityPredicate(containers.get(0).getPredicate())) {
+            Set<Object> values = new HashSet<>(getValues(containers.get(0)));
+            if (!values.stream().allMatch(value -> hasKeyClass(value, keyClass)))
+                return Optional.empty();
+            return Optional.of(values.stream().mapToLong(value -> index.get().count(value)).sum());
+        }
+
+        // prefix ranges can contain keys that don't start with the prefix
+        if (!containers.stream().allMatch(c -> isRangePredicate(c.getPredicate()) && !containsPrefixPredicate(c.getPredicate())))
+            return Optional.empty();
+        List<KeyRange> ranges = findKeyRanges(key);
+        if (!ranges.stream().allMatch(range -> (range.from == null || hasKeyClass(range.from, keyClass)) && (range.to == null || hasKeyClass(range.to, keyClass))))
+            return Optional.empty();
+        if (containers.size() > 1 && containers.stream().anyMatch(c -> c.getPredicate() instanceof OrP))
+            // a disjunction combined with other predicates can't be counted range by range
+            return Optional.empty();
+
+        if (ranges.isEmpty())
+            return Optional.empty();
+
+        long count = 0;
+        for (KeyRange range : ranges) {
+            OIndexCursor cursor = rangeCursor(index.get(), range);
+            while (cursor.hasNext() && cursor.next() != null)
+                count++;
+        }
+        return Optional.of(count);
+    }
+
+    /**
+     * Counts the elements of this step per label. If there are no other
+     * predicates than the labels, the counts are the class counts.
+     */
+    public Map<Object, Long> groupCountByLabel() {
+        return groupCountOfClasses().orElseGet(() -> groupCount(Element::label));
+    }
+
+    /**
+     * Counts the elements of this step per value of the given key. The counts
+     * are read from a covering index if there is one (see
+     * {@link #findCoveringIndexQuery(String)}).
+     */
+    public Map<Object, Long> groupCountByValue(String key) {
+        return groupCountInIndex(key).orElseGet(() -> groupCount(element -> element.value(key)));
+    }
+
+    private Optional<Map<Object, Long>> groupCountOfClasses() {
+        final OrientGraph graph = getGraph();
+        graph.makeActive();
+
+        if ((this.ids != null && this.ids.length > 0) || this.offset > 0 || this.limit >= 0)
+            return Optional.empty();
+        if (graph.database().getTransaction().getEntryCount() > 0)
+            // the class counts don't contain the pending changes of the current transaction
+            return Optional.empty();
+        if (!findLightweightEdgeLabels().isEmpty())
+            // lightweight edges aren't counted by any class
+            return Optional.empty();
+
+        final OSchema schema = graph.database().getMetadata().getSchema();
+        final List<OClass> classes = new ArrayList<>();
+        if (this.hasContainers.isEmpty()) {
+            OClass baseClass = schema.getClass(isVertexStep() ? OClass.VERTEX_CLASS_NAME : OClass.EDGE_CLASS_NAME);
+            classes.add(baseClass);
+            classes.addAll(baseClass.getAllSubclasses());
+        } else {
+            Optional<List<String>> labelClasses = findLabelClasses();
+            if (this.hasContainers.size() > 1 || !labelClasses.isPresent())
+                return Optional.empty();
+            labelClasses.get().forEach(className -> classes.add(schema.getClass(className)));
+        }
+
+        final Map<Object, Long> counts = new HashMap<>();
+        for (OClass cls : classes) {
+            // every class has its own label
+            long count = cls.count(false);
+            if (count > 0)
+                counts.merge(graph.classNameToLabel(cls.getName()), count, Long::sum);
+        }
+        return Optional.of(counts);
+    }
+
+    private Optional<Map<Object, Long>> groupCountInIndex(String key) {
+        final Optional<OrientIndexQuery> indexQuery = findCoveringIndexQuery(key);
+        if (!indexQuery.isPresent())
+            return Optional.empty();
+
+        final List<HasContainer> keyContainers = this.hasContainers.stream().filter(c -> key.equals(c.getKey())).collect(Collectors.toList());
+        final Map<Object, Long> counts = new HashMap<>();
+        long entries = 0;
+        Iterator<Map.Entry<Object, Long>> keyCounts = getGraph().getIndexKeyCounts(indexQuery.get());
+        while (keyCounts.hasNext()) {
+            Map.Entry<Object, Long> keyCount = keyCounts.next();
+            if (keyContainers.stream().allMatch(c -> c.getPredicate().test(keyCount.getKey()))) {
+                counts.put(keyCount.getKey(), keyCount.getValue());
+                entries += keyCount.getValue();
             }
         }
+
+        if (keyContainers.isEmpty() && entries != count())
+            // some elements don't have the key, which fails for the loaded elements
+            return Optional.empty();
+        return Optional.of(counts);
+    }
+
+    /**
+     * Counts the elements without keeping them. Unless an index or the ids
+     * select the elements, the clusters are scanned one by one (or in
+     * parallel) and the partial counts are merged.
+     */
+    private Map<Object, Long> groupCount(Function<Element, Object> key) {
+        final OrientGraph graph = getGraph();
+        graph.makeActive();
+
+        if ((this.ids != null && this.ids.length > 0) || this.offset > 0 || this.limit >= 0 || this.orderKey != null || !findIndex().isEmpty()
+                || !findLightweightEdgeLabels().isEmpty()) {
+            final Map<Object, Long> counts = new HashMap<>();
+            this.iteratorSupplier.get().forEachRemaining(element -> counts.merge(key.apply(element), 1L, Long::sum));
+            return counts;
+        }
+
+        final OSchema schema = graph.database().getMetadata().getSchema();
+        final int[] clusterIds = findLabelClasses()
+                .map(classNames -> classNames.stream().flatMapToInt(className -> Arrays.stream(schema.getClass(className).getClusterIds())).toArray())
+                .orElseGet(() -> schema.getClass(isVertexStep() ? OClass.VERTEX_CLASS_NAME : OClass.EDGE_CLASS_NAME).getPolymorphicClusterIds());
+        OLogManager.instance().debug(this, "counting in clusters " + Arrays.toString(clusterIds));
+
+        final Predicate<Element> filter = element -> HasContainer.testAll(element, this.hasContainers);
+        return isVertexStep() ? graph.groupCountVertices(clusterIds, filter, key) : graph.groupCountEdges(clusterIds, filter, key);
+    }
+
+    private static boolean containsPrefixPredicate(P<?> predicate) {
+        if (predicate instanceof ConnectiveP)
+            return ((ConnectiveP<?>) predicate).getPredicates().stream().anyMatch(OrientGraphStep::isPrefixPredicate);
+        return isPrefixPredicate(predicate);
+    }
+
+    private static boolean isPrefixPredicateOnly(P<?> predicate) {
+        if (predicate instanceof ConnectiveP)
+            return ((ConnectiveP<?>) predicate).getPredicates().stream().allMatch(OrientGraphStep::isPrefixPredicate);
+        return isPrefixPredicate(predicate);
+    }
+
+    private static boolean isEqualityPredicate(P<?> predicate) {
+        return predicate.getBiPredicate() == Compare.eq || predicate.getBiPredicate() == Contains.within;
+    }
+
+    private static boolean hasKeyClass(Object value, Class<?> keyClass) {
+        // the index doesn't convert the values, e.g. a long doesn't match an integer key
+        return keyClass.isInstance(value);
+    }
+
+    private static OIndexCursor rangeCursor(OIndex<?> index, KeyRange range) {
+        if (range.from != null && range.to != null)
+            return index.iterateEntriesBetween(range.from, range.fromInclusive, range.to, range.toInclusive, true);
+        else if (range.from != null)
+            return index.iterateEntriesMajor(range.from, range.fromInclusive, true);
+        else
+            return index.iterateEntriesMinor(range.to, range.toInclusive, true);
     }
 
     private boolean isLabelKey(String key) {
@@ -122,7 +556,8 @@ public class OrientGraphStep<S, E extends Element> extends GraphStep<S, E> imple
                 .filter(hasContainer -> isLabelKey(hasContainer.getKey()))
                 .findFirst();
 
-        if (container.isPresent()) {
+        // e.g. hasLabel(neq("x")) doesn't restrict the elements to some classes
+        if (container.isPresent() && isEqualityPredicate(container.get().getPredicate())) {
             Object value = container.get().getValue();
 
             //The ugly part. Is there anyway to know the return type of a predicate value ?
@@ -136,6 +571,34 @@ public class OrientGraphStep<S, E extends Element> extends GraphStep<S, E> imple
         return classLabels;
     }
 
+    /**
+     * Finds the classes whose elements match the label predicate of this
+     * step, i.e. the classes to scan instead of all elements. Labels without
+     * a class match no elements, so they're left out.
+     *
+     * @return empty if there is no label predicate or it can't be mapped to
+     *         classes (e.g. neq or the default label)
+     */
+    private Optional<List<String>> findLabelClasses() {
+        Optional<HasContainer> labelContainer = this.hasContainers.stream().filter(c -> isLabelKey(c.getKey())).findFirst();
+        if (!labelContainer.isPresent() || !isEqualityPredicate(labelContainer.get().getPredicate()))
+            return Optional.empty();
+
+        final OrientGraph graph = getGraph();
+        final OSchema schema = graph.database().getMetadata().getSchema();
+        final String baseClassName = isVertexStep() ? OClass.VERTEX_CLASS_NAME : OClass.EDGE_CLASS_NAME;
+        List<String> classNames = new ArrayList<>();
+        for (String label : findClassLabelsInHasContainers()) {
+            if (label.equals(Vertex.DEFAULT_LABEL) || label.equals(Edge.DEFAULT_LABEL))
+                // the elements of the base class, which isn't the class the label maps to
+                return Optional.empty();
+            OClass cls = schema.getClass(graph.labelToClassName(label, baseClassName));
+            if (cls != null && cls.isSubClassOf(baseClassName))
+                classNames.add(cls.getName());
+        }
+        return Optional.of(classNames);
+    }
+
     private OrientGraph getGraph() {
         return (OrientGraph) this.getTraversal().getGraph().get();
     }
@@ -145,57 +608,366 @@ public class OrientGraphStep<S, E extends Element> extends GraphStep<S, E> imple
         final Set<OrientIndexQuery> indexedQueries = new HashSet<>();
         final OrientGraph graph = getGraph();
         final OIndexManagerProxy indexManager = graph.database().getMetadata().getIndexManager();
+        final OSchema schema = graph.database().getMetadata().getSchema();
+        final OrientIndexStatistics statistics = graph.getIndexStatistics();
 
         // find indexed keys only for the element subclasses (if present)
         final Set<String> classLabels = findClassLabelsInHasContainers();
+        final Map<String, List<Object>> equalities = findEqualityValues();
 
-        if (!classLabels.isEmpty()) {
-            final Set<String> indexedKeys = new HashSet<>();// classLabels.isPresent() ? graph.getIndexedKeys(this.returnClass, classLabels.get()) : graph.getIndexedKeys(this.returnClass);
+        for (String classLabel : classLabels) {
+            String className = graph.labelToClassName(classLabel, isVertexStep() ? OClass.VERTEX_CLASS_NAME : OClass.EDGE_CLASS_NAME);
+            if (!schema.existsClass(className))
+                // no elements with this label
+                continue;
 
-            classLabels.forEach(label -> indexedKeys.addAll(graph.getIndexedKeys(this.returnClass, label)));
+            List<List<OrientIndexQuery>> candidates = new ArrayList<>();
+            for (OIndex<?> index : indexManager.getClassIndexes(className)) {
+                List<OrientIndexQuery> equalityQueries = equalityIndexQueries(index, equalities);
+                if (!equalityQueries.isEmpty())
+                    candidates.add(equalityQueries);
+                List<OrientIndexQuery> rangeQueries = rangeIndexQueries(index);
+                if (!rangeQueries.isEmpty())
+                    candidates.add(rangeQueries);
+            }
 
-            Optional<Pair<String, Iterator<Object>>> requestedKeyValue = this.hasContainers.stream()
-                    .filter(c -> indexedKeys.contains(c.getKey()) && (c.getPredicate().getBiPredicate() == Compare.eq ||
-                            c.getPredicate().getBiPredicate() == Contains.within))
-                    .findAny()
-                    .map(c -> getValuePair(c))
-                    .orElseGet(Optional::empty);
+            Optional<List<OrientIndexQuery>> cheapest = candidates.stream().min(Comparator.<List<OrientIndexQuery>> comparingDouble(statistics::estimate));
+            if (!cheapest.isPresent()) {
+                // the elements of this class can only be found by scanning
+                OLogManager.instance().warn(this, "no usable index found for class=[" + className + "] and " + this.hasContainers);
+                return Collections.emptySet();
+            }
+            // without an index only the records of the label's class are scanned
+            final OClass cls = schema.getClass(className);
+            if (statistics.estimate(cheapest.get()) > statistics.estimateScan(cls)) {
+                OLogManager.instance().debug(this, "scanning is cheaper than using " + cheapest.get());
+                return Collections.emptySet();
+            }
+            indexedQueries.addAll(intersected(cheapest.get(), candidates, cls, statistics));
+        }
 
-            if (requestedKeyValue.isPresent()) {
-                String key = requestedKeyValue.get().getValue0();
-                Iterator<Object> values = requestedKeyValue.get().getValue1();
+        return indexedQueries;
+    }
 
-                classLabels.forEach(classLabel -> {
-                    String className = graph.labelToClassName(classLabel, isVertexStep() ? OClass.VERTEX_CLASS_NAME : OClass.EDGE_CLASS_NAME);
-                    Set<OIndex<?>> classIndexes = indexManager.getClassIndexes(className);
-                    Iterator<OIndex<?>> keyIndexes = classIndexes.stream().filter(idx -> idx.getDefinition().getFields().contains(key)).iterator();
+    /**
+     * Intersects the queries with the other candidate indexes that are
+     * expected to filter out enough records to be worth reading their ids.
+     * Every candidate is built from the has() predicates, so the matching
+     * elements are found by all of them.
+     */
+    private List<OrientIndexQuery> intersected(List<OrientIndexQuery> queries, List<List<OrientIndexQuery>> candidates, OClass cls,
+            OrientIndexStatistics statistics) {
+        if (getGraph().database().getTransaction().getEntryCount() > 0)
+            // records created in the transaction don't have their final ids yet
+            return queries;
 
-                    if (keyIndexes.hasNext()) {
-                        // TODO: select best index if there are multiple options
-                        indexedQueries.add(new OrientIndexQuery(keyIndexes.next(), values));
-                    } else {
-                        OLogManager.instance().warn(this, "no index found for class=[" + className + "] and key=[" + key + "]");
-                    }
+        final Set<OIndex<?>> usedIndexes = queries.stream().map(q -> (OIndex<?>) q.index).collect(Collectors.toSet());
+        List<List<OrientIndexQuery>> intersections = candidates.stream()
+                .filter(candidate -> candidate.stream().noneMatch(q -> usedIndexes.contains(q.index)))
+                .filter(candidate -> statistics.isWorthIntersecting(queries, candidate, cls))
+                .sorted(Comparator.<List<OrientIndexQuery>> comparingDouble(statistics::estimate))
+                .collect(Collectors.toList());
 
-                });
+        List<OrientIndexQuery> result = new ArrayList<>();
+        for (OrientIndexQuery query : queries) {
+            for (List<OrientIndexQuery> intersection : intersections)
+                query = query.intersect(intersection);
+            result.add(query);
+        }
+        return result;
+    }
 
-                return indexedQueries;
+    /**
+     * Builds the lookups for an index that is matched by a prefix of its
+     * fields with equality predicates. A fully matched index is looked up by
+     * (composite) key, a partially matched composite ordered index by
+     * iterating over all the keys starting with the matched prefix.
+     */
+    private List<OrientIndexQuery> equalityIndexQueries(OIndex<?> index, Map<String, List<Object>> equalities) {
+        List<String> fields = index.getDefinition().getFields();
+        int prefixLength = matchedPrefixLength(index, equalities);
+
+        if (prefixLength == 0)
+            return Collections.emptyList();
+
+        if (fields.size() == 1)
+            return Collections.singletonList(new OrientIndexQuery(index, equalities.get(fields.get(0))));
+
+        List<Object> compositeKeys = compositeKeys(fields.subList(0, prefixLength), equalities);
+        if (prefixLength == fields.size())
+            return Collections.singletonList(new OrientIndexQuery(index, compositeKeys));
+
+        // only ordered (SB-tree) indexes can iterate over the keys of a prefix
+        if (!index.supportsOrderedIterations())
+            return Collections.emptyList();
+
+        return compositeKeys.stream()
+                .map(prefix -> new OrientIndexQuery(index, prefix, true, prefix, true))
+                .collect(Collectors.toList());
+    }
+
+    private List<OrientIndexQuery> rangeIndexQueries(OIndex<?> index) {
+        // only ordered (SB-tree) indexes can iterate over a range of keys
+        List<String> fields = index.getDefinition().getFields();
+        if (fields.size() != 1 || !index.supportsOrderedIterations())
+            return Collections.emptyList();
+
+        String key = fields.get(0);
+        List<P<?>> rangePredicates = this.hasContainers.stream()
+                .filter(c -> key.equals(c.getKey()) && isRangePredicate(c.getPredicate()))
+                .map(HasContainer::getPredicate)
+                .collect(Collectors.toList());
+        if (rangePredicates.isEmpty())
+            return Collections.emptyList();
+
+        // a collate changes the order of the keys, e.g. 'B' < 'a' but 'a' < 'b'
+        // in a case insensitive index. Only prefixes are still found in the
+        // transformed range, as every key starting with the prefix starts with
+        // the transformed prefix as well.
+        final OCollate collate = index.getDefinition().getCollate();
+        final boolean prefixesOnly = rangePredicates.stream().allMatch(OrientGraphStep::isPrefixPredicateOnly);
+        if (rangePredicates.stream().anyMatch(OrientGraphStep::containsPrefixPredicate) && !isStringIndex(index))
+            return Collections.emptyList();
+        if (!isDefaultCollate(collate) && !(prefixesOnly && OCaseInsensitiveCollate.NAME.equals(collate.getName())))
+            return Collections.emptyList();
+
+        return findKeyRanges(key, collate).stream()
+                .map(range -> new OrientIndexQuery(index, range.from, range.fromInclusive, range.to, range.toInclusive))
+                .collect(Collectors.toList());
+    }
+
+    private static boolean isStringIndex(OIndex<?> index) {
+        return index.getKeyTypes().length == 1 && index.getKeyTypes()[0] == OType.STRING;
+    }
+
+    private static boolean isDefaultCollate(OCollate collate) {
+        return collate == null || ODefaultCollate.NAME.equals(collate.getName());
+    }
+
+    private static Object collated(OCollate collate, Object key) {
+        return key == null || collate == null ? key : collate.transform(key);
+    }
+
+    private static int matchedPrefixLength(OIndex<?> index, Map<String, List<Object>> equalities) {
+        List<String> fields = index.getDefinition().getFields();
+        int length = 0;
+        while (length < fields.size() && equalities.containsKey(fields.get(length)))
+            length++;
+        return length;
+    }
+
+    /**
+     * @return all combinations of the requested values for the given fields
+     */
+    private static List<Object> compositeKeys(List<String> fields, Map<String, List<Object>> equalities) {
+        List<List<Object>> combinations = Collections.<List<Object>> singletonList(Collections.emptyList());
+        for (String field : fields) {
+            List<List<Object>> extended = new ArrayList<>();
+            for (List<Object> combination : combinations) {
+                for (Object value : equalities.get(field)) {
+                    List<Object> keys = new ArrayList<>(combination);
+                    keys.add(value);
+                    extended.add(keys);
+                }
             }
+            combinations = extended;
         }
+        return combinations.stream().<Object> map(OCompositeKey::new).collect(Collectors.toList());
+    }
 
-        return indexedQueries;
+    /**
+     * @return the requested values of all eq and within predicates by key
+     */
+    private Map<String, List<Object>> findEqualityValues() {
+        Map<String, List<Object>> equalities = new HashMap<>();
+        this.hasContainers.stream()
+                .filter(c -> !isLabelKey(c.getKey()))
+                .filter(c -> c.getPredicate().getBiPredicate() == Compare.eq || c.getPredicate().getBiPredicate() == Contains.within)
+                .forEach(c -> equalities.putIfAbsent(c.getKey(), getValues(c)));
+        return equalities;
+    }
+
+    private static boolean isRangePredicate(P<?> predicate) {
+        if (predicate instanceof ConnectiveP)
+            return ((ConnectiveP<?>) predicate).getPredicates().stream().allMatch(p -> !(p instanceof ConnectiveP) && isRangePredicate(p));
+
+        BiPredicate<?, ?> biPredicate = predicate.getBiPredicate();
+        return predicate.getValue() != null
+                && (biPredicate == Compare.gt || biPredicate == Compare.gte || biPredicate == Compare.lt || biPredicate == Compare.lte
+                        || isPrefixPredicate(predicate));
+    }
+
+    private static boolean isPrefixPredicate(P<?> predicate) {
+        return predicate.getBiPredicate() == OrientP.Text.startsWith && predicate.getValue() instanceof String;
+    }
+
+    /**
+     * Collects the key ranges requested by the range predicates on the given
+     * key. Conjunctions (e.g. between, inside or several has() steps on the
+     * same key) are narrowed down to a single range, a disjunction (outside)
+     * results in one range per side, overlapping sides merged so that no key
+     * is read twice. Predicates that can't be expressed as a range are left
+     * to the HasContainer filter.
+     */
+    private List<KeyRange> findKeyRanges(String key) {
+        return findKeyRanges(key, null);
     }
 
-    /** gets the requested values from the Has step. If it's a single value, wrap it in an array, otherwise return the array
+    /**
+     * @param collate
+     *            collate of the index the prefixes are looked up in, null if
+     *            they're taken as they are
+     */
+    private List<KeyRange> findKeyRanges(String key, OCollate collate) {
+        KeyRange conjunction = new KeyRange();
+        Optional<OrP<?>> disjunction = Optional.empty();
+
+        for (HasContainer c : this.hasContainers) {
+            if (!key.equals(c.getKey()) || !isRangePredicate(c.getPredicate()))
+                continue;
+
+            P<?> predicate = c.getPredicate();
+            if (predicate instanceof OrP) {
+                if (!disjunction.isPresent())
+                    disjunction = Optional.of((OrP<?>) predicate);
+            } else if (predicate instanceof AndP) {
+                ((AndP<?>) predicate).getPredicates().forEach(p -> conjunction.narrow(p, collate));
+            } else {
+                conjunction.narrow(predicate, collate);
+            }
+        }
+
+        if (conjunction.isBounded())
+            return Collections.singletonList(conjunction);
+
+        List<KeyRange> ranges = new ArrayList<>();
+        disjunction.ifPresent(or -> or.getPredicates().forEach(p -> {
+            KeyRange range = new KeyRange();
+            range.narrow(p, collate);
+            ranges.add(range);
+        }));
+        return KeyRange.merged(ranges);
+    }
+
+    private static final class KeyRange {
+        private Object from;
+        private boolean fromInclusive;
+        private Object to;
+        private boolean toInclusive;
+
+        private boolean isBounded() {
+            return from != null || to != null;
+        }
+
+        private void narrow(P<?> predicate, OCollate collate) {
+            BiPredicate<?, ?> biPredicate = predicate.getBiPredicate();
+            Object value = predicate.getValue();
+
+            if (biPredicate == Compare.gt || biPredicate == Compare.gte) {
+                narrowFrom(value, biPredicate == Compare.gte);
+            } else if (biPredicate == Compare.lt || biPredicate == Compare.lte) {
+                narrowTo(value, biPredicate == Compare.lte);
+            } else if (biPredicate == OrientP.Text.startsWith) {
+                // the (collated) keys starting with the prefix
+                final String prefix = (String) collated(collate, value);
+                final String successor = OrientP.Text.successor(prefix);
+                narrowFrom(prefix, true);
+                if (successor != null)
+                    narrowTo(successor, false);
+            }
+        }
+
+        private void narrowFrom(Object value, boolean inclusive) {
+            Integer cmp = from == null ? Integer.valueOf(1) : compare(value, from);
+            if (cmp != null && (cmp > 0 || (cmp == 0 && !inclusive))) {
+                from = value;
+                fromInclusive = inclusive;
+            }
+        }
+
+        private void narrowTo(Object value, boolean inclusive) {
+            Integer cmp = to == null ? Integer.valueOf(-1) : compare(value, to);
+            if (cmp != null && (cmp < 0 || (cmp == 0 && !inclusive))) {
+                to = value;
+                toInclusive = inclusive;
+            }
+        }
+
+        /**
+         * @return the ranges in key order, overlapping or adjacent ranges
+         *         merged into one. Empty if the bounds can't be compared with
+         *         each other, the predicates are left to the filter then.
+         */
+        private static List<KeyRange> merged(List<KeyRange> ranges) {
+            final List<Object> bounds = new ArrayList<>();
+            ranges.forEach(range -> {
+                if (range.from != null)
+                    bounds.add(range.from);
+                if (range.to != null)
+                    bounds.add(range.to);
+            });
+            if (!bounds.stream().allMatch(bound -> compare(bound, bounds.get(0)) != null))
+                return Collections.emptyList();
+
+            final List<KeyRange> sorted = new ArrayList<>(ranges);
+            sorted.sort(KeyRange::compareFrom);
+            final List<KeyRange> merged = new ArrayList<>();
+            for (KeyRange range : sorted) {
+                final KeyRange last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+                if (last != null && last.overlaps(range))
+                    last.extendTo(range);
+                else
+                    merged.add(range);
+            }
+            return merged;
+        }
+
+        private static int compareFrom(KeyRange a, KeyRange b) {
+            if (a.from == null || b.from == null)
+                return a.from == b.from ? 0 : a.from == null ? -1 : 1;
+            return compare(a.from, b.from);
+        }
+
+        /**
+         * @return true if the given range, which doesn't start before this
+         *         one, starts within this range or right after it
+         */
+        private boolean overlaps(KeyRange next) {
+            if (to == null || next.from == null)
+                return true;
+            int cmp = compare(next.from, to);
+            return cmp < 0 || (cmp == 0 && (toInclusive || next.fromInclusive));
+        }
+
+        private void extendTo(KeyRange next) {
+            if (to == null)
+                return;
+            int cmp = next.to == null ? 1 : compare(next.to, to);
+            if (cmp > 0 || (cmp == 0 && next.toInclusive)) {
+                to = next.to;
+                toInclusive = next.toInclusive;
+            }
+        }
+
+        /**
+         * @return null if the values are not comparable, in which case the
+         *         first bound wins and the rest is left to the filter
+         */
+        private static Integer compare(Object a, Object b) {
+            if ((a instanceof Number && b instanceof Number) || (a instanceof Comparable && a.getClass().equals(b.getClass())))
+                return Order.incr.compare(a, b);
+            return null;
+        }
+    }
+
+    /** gets the requested values from the Has step. If it's a single value, wrap it in a list, otherwise return the values
      *  */
-    private Optional<Pair<String, Iterator<Object>>> getValuePair(HasContainer c) {
-        Iterator<Object> values;
+    @SuppressWarnings("unchecked")
+    private List<Object> getValues(HasContainer c) {
         if (c.getPredicate().getBiPredicate() == Contains.within)
-            values = ((Iterable<Object>) c.getValue()).iterator();
+            return new ArrayList<>((Collection<Object>) c.getValue());
         else
-            values = IteratorUtils.of(c.getValue());
-        return Optional.of(new Pair<>(c.getKey(), values));
-
+            return Collections.singletonList(c.getValue());
     }
 
     @Override
@@ -207,14 +979,79 @@ public class OrientGraphStep<S, E extends Element> extends GraphStep<S, E> imple
                     : StringFactory.stepString(this, this.returnClass.getSimpleName().toLowerCase(), Arrays.toString(this.ids), this.hasContainers);
     }
 
-    private <X extends Element> Iterator<X> iteratorList(final Iterator<X> iterator) {
-        final List<X> list = new ArrayList<>();
-        while (iterator.hasNext()) {
-            final X e = iterator.next();
-            if (HasContainer.testAll(e, this.hasContainers))
-                list.add(e);
-        }
-        return list.iterator();
+    /**
+     * Lazily filters the given elements by the HasContainers of this step, so
+     * that records are only read as the traversal consumes them.
+     */
+    private <X extends Element> Iterator<X> filtered(final Iterator<X> iterator) {
+        if (this.hasContainers.isEmpty())
+            return iterator;
+        return IteratorUtils.filter(iterator, e -> HasContainer.testAll(e, this.hasContainers));
+    }
+
+    /**
+     * Sorts the elements like the order step they replace, i.e. numbers of
+     * different types by their value.
+     */
+    private <X extends Element> Iterator<X> sorted(final Iterator<X> iterator) {
+        final Order order = this.orderAscending ? Order.incr : Order.decr;
+        final List<X> elements = IteratorUtils.list(iterator);
+        elements.sort((a, b) -> order.compare(a.value(this.orderKey), b.value(this.orderKey)));
+        return elements.iterator();
+    }
+
+    /**
+     * Skips the first offset elements and stops reading once the limit is
+     * reached, so that scans and index cursors don't read further than the
+     * traversal needs.
+     */
+    private <X> Iterator<X> ranged(final Iterator<X> iterator) {
+        for (long skipped = 0; skipped < this.offset && iterator.hasNext(); skipped++)
+            iterator.next();
+
+        if (this.limit < 0)
+            return iterator;
+        return IteratorUtils.limit(iterator, (int) Math.min(this.limit - this.offset, Integer.MAX_VALUE));
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    /**
+     * Limits the elements produced by this step to the given range, with the
+     * same semantics as {@link org.apache.tinkerpop.gremlin.process.traversal.step.filter.RangeGlobalStep}
+     *
+     * @param low
+     *            number of elements to skip
+     * @param high
+     *            index of the first element not to return, -1 for no limit
+     */
+    public void setRange(final long low, final long high) {
+        this.offset = low;
+        this.limit = high;
+    }
+
+    public String getOrderKey() {
+        return orderKey;
+    }
+
+    public boolean isOrderAscending() {
+        return orderAscending;
+    }
+
+    /**
+     * Returns the elements ordered by the given key, read from an index
+     * found by {@link #findOrderIndex(String)} if it contains all the
+     * elements, otherwise sorted in memory.
+     */
+    public void setOrder(final String key, final boolean ascending) {
+        this.orderKey = key;
+        this.orderAscending = ascending;
     }
 
     @Override
@@ -0,0 +1,51 @@
+package org.apache.tinkerpop.gremlin.orientdb.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.orientdb.OrientGraph;
+import org.apache.tinkerpop.gremlin.orientdb.traversal.step.map.OrientBatchVertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+
+import java.util.Optional;
+
+/**
+ * Replaces <code>out()</code>, <code>in()</code> and <code>both()</code>
+ * with an {@link OrientBatchVertexStep} if the graph is configured with a
+ * {@link OrientGraph#CONFIG_VERTEX_STEP_BATCH_SIZE} greater than 1.
+ */
+public final class OrientBatchVertexStepStrategy
+        extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy>
+        implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final OrientBatchVertexStepStrategy INSTANCE = new OrientBatchVertexStepStrategy();
+
+    private OrientBatchVertexStepStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        final Optional<Graph> graph = traversal.getGraph();
+        if (!graph.isPresent() || !(graph.get() instanceof OrientGraph))
+            return;
+        final int batchSize = ((OrientGraph) graph.get()).configuration().getInt(OrientGraph.CONFIG_VERTEX_STEP_BATCH_SIZE, 0);
+        if (batchSize <= 1)
+            return;
+
+        for (final VertexStep<?> vertexStep : TraversalHelper.getStepsOfClass(VertexStep.class, traversal)) {
+            if (!vertexStep.returnsVertex())
+                continue;
+
+            final OrientBatchVertexStep batchVertexStep = new OrientBatchVertexStep(traversal, vertexStep.getDirection(), vertexStep.getEdgeLabels(), batchSize);
+            vertexStep.getLabels().forEach(batchVertexStep::addLabel);
+            TraversalHelper.replaceStep((Step) vertexStep, (Step) batchVertexStep, traversal);
+        }
+    }
+
+    public static OrientBatchVertexStepStrategy instance() {
+        return INSTANCE;
+    }
+}
@@ -0,0 +1,55 @@
+package org.apache.tinkerpop.gremlin.orientdb.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.orientdb.traversal.step.map.OrientGraphCountStep;
+import org.apache.tinkerpop.gremlin.orientdb.traversal.step.sideEffect.OrientGraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.CountGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Replaces <code>g.V().has(...).count()</code> with an
+ * {@link OrientGraphCountStep}, which counts without loading the elements
+ * where possible. Only applies to root traversals whose graph step isn't
+ * labeled, as nobody else could look at the counted elements then.
+ */
+public final class OrientGraphCountStrategy
+        extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy>
+        implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final OrientGraphCountStrategy INSTANCE = new OrientGraphCountStrategy();
+
+    private OrientGraphCountStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (!(traversal.getParent() instanceof EmptyStep) || !(traversal.getStartStep() instanceof OrientGraphStep))
+            return;
+
+        final OrientGraphStep<?, ?> graphStep = (OrientGraphStep<?, ?>) traversal.getStartStep();
+        final Step<?, ?> nextStep = graphStep.getNextStep();
+        if (!graphStep.isStartStep() || !graphStep.getLabels().isEmpty() || !(nextStep instanceof CountGlobalStep))
+            return;
+
+        final OrientGraphCountStep<?> countStep = new OrientGraphCountStep<>(traversal, graphStep);
+        nextStep.getLabels().forEach(countStep::addLabel);
+        traversal.removeStep(graphStep);
+        TraversalHelper.replaceStep((Step) nextStep, (Step) countStep, traversal);
+    }
+
+    @Override
+    public Set<Class<? extends ProviderOptimizationStrategy>> applyPrior() {
+        return Collections.singleton(OrientGraphStepStrategy.class);
+    }
+
+    public static OrientGraphCountStrategy instance() {
+        return INSTANCE;
+    }
+}
@@ -0,0 +1,101 @@
+package org.apache.tinkerpop.gremlin.orientdb.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.orientdb.traversal.step.map.OrientGraphGroupCountStep;
+import org.apache.tinkerpop.gremlin.orientdb.traversal.step.sideEffect.OrientGraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.lambda.ElementValueTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.lambda.TokenTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.CountGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.GroupCountStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.GroupStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.LabelStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.T;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Replaces <code>g.V().has(...).groupCount().by(label)</code> and
+ * <code>g.V().has(...).groupCount().by(key)</code>, as well as
+ * <code>group().by(label).by(count())</code> and
+ * <code>group().by(key).by(count())</code>, with an
+ * {@link OrientGraphGroupCountStep}. Like {@link OrientGraphCountStrategy}
+ * it only applies to root traversals whose graph step isn't labeled.
+ */
+public final class OrientGraphGroupCountStrategy
+        extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy>
+        implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final OrientGraphGroupCountStrategy INSTANCE = new OrientGraphGroupCountStrategy();
+
+    private OrientGraphGroupCountStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (!(traversal.getParent() instanceof EmptyStep) || !(traversal.getStartStep() instanceof OrientGraphStep))
+            return;
+
+        final OrientGraphStep<?, ?> graphStep = (OrientGraphStep<?, ?>) traversal.getStartStep();
+        final Step<?, ?> nextStep = graphStep.getNextStep();
+        if (!graphStep.isStartStep() || !graphStep.getLabels().isEmpty())
+            return;
+
+        final List<? extends Traversal.Admin<?, ?>> children;
+        if (nextStep instanceof GroupCountStep)
+            children = ((GroupCountStep<?, ?>) nextStep).getLocalChildren();
+        else if (nextStep instanceof GroupStep && isCount(((GroupStep<?, ?, ?>) nextStep).getLocalChildren()))
+            children = ((GroupStep<?, ?, ?>) nextStep).getLocalChildren().subList(0, 1);
+        else
+            return;
+
+        // groupCount() without by() groups the elements themselves
+        if (children.size() != 1)
+            return;
+        final Traversal.Admin<?, ?> keyTraversal = children.get(0);
+        final String key;
+        if (isLabel(keyTraversal))
+            key = null;
+        else if (keyTraversal instanceof ElementValueTraversal)
+            key = ((ElementValueTraversal<?>) keyTraversal).getPropertyKey();
+        else
+            return;
+
+        final OrientGraphGroupCountStep<?, ?> groupCountStep = new OrientGraphGroupCountStep<>(traversal, graphStep, key);
+        nextStep.getLabels().forEach(groupCountStep::addLabel);
+        traversal.removeStep(graphStep);
+        TraversalHelper.replaceStep((Step) nextStep, (Step) groupCountStep, traversal);
+    }
+
+    /**
+     * @return true for <code>by(label)</code> and <code>by(label())</code>
+     */
+    private static boolean isLabel(Traversal.Admin<?, ?> keyTraversal) {
+        if (keyTraversal instanceof TokenTraversal)
+            return ((TokenTraversal<?, ?>) keyTraversal).getToken() == T.label;
+        return keyTraversal.getSteps().size() == 1 && keyTraversal.getStartStep() instanceof LabelStep;
+    }
+
+    /**
+     * @return true for the key and value traversals of
+     *         <code>group().by(...).by(count())</code>
+     */
+    private static boolean isCount(List<? extends Traversal.Admin<?, ?>> children) {
+        return children.size() == 2 && children.get(1).getSteps().size() == 1 && children.get(1).getStartStep() instanceof CountGlobalStep;
+    }
+
+    @Override
+    public Set<Class<? extends ProviderOptimizationStrategy>> applyPrior() {
+        return Collections.singleton(OrientGraphStepStrategy.class);
+    }
+
+    public static OrientGraphGroupCountStrategy instance() {
+        return INSTANCE;
+    }
+}
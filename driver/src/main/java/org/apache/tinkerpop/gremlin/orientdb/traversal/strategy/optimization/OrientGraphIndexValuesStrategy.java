@@ -0,0 +1,76 @@
+package org.apache.tinkerpop.gremlin.orientdb.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.orientdb.OrientIndexQuery;
+import org.apache.tinkerpop.gremlin.orientdb.traversal.step.map.OrientGraphIndexValuesStep;
+import org.apache.tinkerpop.gremlin.orientdb.traversal.step.sideEffect.OrientGraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.DedupGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.PropertiesStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.PropertyType;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Answers <code>g.V().hasLabel(l).values(key)</code>,
+ * <code>g.V().hasLabel(l).values(key).dedup()</code> and
+ * <code>g.V().hasLabel(l).has(key, range).values(key)</code> from the keys
+ * of an index on the key, if the index covers the values exactly.
+ */
+public final class OrientGraphIndexValuesStrategy
+        extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy>
+        implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final OrientGraphIndexValuesStrategy INSTANCE = new OrientGraphIndexValuesStrategy();
+
+    private OrientGraphIndexValuesStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (!(traversal.getParent() instanceof EmptyStep) || !(traversal.getStartStep() instanceof OrientGraphStep))
+            return;
+        // the elements themselves aren't available
+        if (TraversalHelper.anyStepRecursively(step -> step.getRequirements().contains(TraverserRequirement.PATH), traversal))
+            return;
+
+        final OrientGraphStep<?, ?> graphStep = (OrientGraphStep<?, ?>) traversal.getStartStep();
+        if (!graphStep.isStartStep() || !graphStep.getLabels().isEmpty() || !(graphStep.getNextStep() instanceof PropertiesStep))
+            return;
+
+        final PropertiesStep<?> propertiesStep = (PropertiesStep<?>) graphStep.getNextStep();
+        if (propertiesStep.getReturnType() != PropertyType.VALUE || propertiesStep.getPropertyKeys().length != 1 || !propertiesStep.getLabels().isEmpty())
+            return;
+
+        final String key = propertiesStep.getPropertyKeys()[0];
+        final Optional<OrientIndexQuery> indexQuery = graphStep.findCoveringIndexQuery(key);
+        if (!indexQuery.isPresent())
+            return;
+
+        final Step<?, ?> nextStep = propertiesStep.getNextStep();
+        final boolean dedup = nextStep instanceof DedupGlobalStep && nextStep.getLabels().isEmpty()
+                && ((DedupGlobalStep<?>) nextStep).getLocalChildren().isEmpty() && ((DedupGlobalStep<?>) nextStep).getScopeKeys().isEmpty();
+
+        final OrientGraphIndexValuesStep<?, ?> indexValuesStep = new OrientGraphIndexValuesStep<>(traversal, graphStep, indexQuery.get(), key, dedup);
+        traversal.removeStep(graphStep);
+        if (dedup)
+            traversal.removeStep(nextStep);
+        TraversalHelper.replaceStep((Step) propertiesStep, (Step) indexValuesStep, traversal);
+    }
+
+    @Override
+    public Set<Class<? extends ProviderOptimizationStrategy>> applyPrior() {
+        return Collections.singleton(OrientGraphStepStrategy.class);
+    }
+
+    public static OrientGraphIndexValuesStrategy instance() {
+        return INSTANCE;
+    }
+}
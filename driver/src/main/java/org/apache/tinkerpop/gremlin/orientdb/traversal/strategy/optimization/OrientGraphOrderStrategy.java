@@ -0,0 +1,126 @@
+package org.apache.tinkerpop.gremlin.orientdb.traversal.strategy.optimization;
+
+import com.orientechnologies.orient.core.index.OIndex;
+import org.apache.tinkerpop.gremlin.orientdb.OrientIndexQuery;
+import org.apache.tinkerpop.gremlin.orientdb.traversal.step.sideEffect.OrientGraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.lambda.ElementValueTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.RangeGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.MaxGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.MinGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.OrderGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.PropertiesStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.structure.PropertyType;
+import org.javatuples.Pair;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Reads the elements in index order instead of sorting them, if an ordered
+ * index on the key is available:
+ * <ul>
+ * <li><code>g.V().hasLabel(l).order().by(key, incr|decr).limit(n)</code>
+ * stops reading after the first n elements of the index</li>
+ * <li><code>g.V().hasLabel(l).values(key).min()</code> (or
+ * <code>max()</code>) only reads the first element of the index</li>
+ * </ul>
+ * Elements without the key are not in the index. <code>values(key)</code>
+ * skips them anyway, but ordering them by the key fails, so
+ * {@link OrientGraphStep} only reads the order from the index if every
+ * element has the key.
+ */
+public final class OrientGraphOrderStrategy
+        extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy>
+        implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final OrientGraphOrderStrategy INSTANCE = new OrientGraphOrderStrategy();
+
+    private OrientGraphOrderStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (!(traversal.getParent() instanceof EmptyStep) || !(traversal.getStartStep() instanceof OrientGraphStep))
+            return;
+
+        final OrientGraphStep<?, ?> graphStep = (OrientGraphStep<?, ?>) traversal.getStartStep();
+        if (!graphStep.isStartStep() || graphStep.getIds().length > 0 || graphStep.getOrderKey() != null || graphStep.getLimit() >= 0)
+            return;
+
+        final Step<?, ?> nextStep = graphStep.getNextStep();
+        if (nextStep instanceof OrderGlobalStep && nextStep.getNextStep() instanceof RangeGlobalStep)
+            applyOrderLimit(graphStep, (OrderGlobalStep<?, ?>) nextStep, (RangeGlobalStep<?>) nextStep.getNextStep(), traversal);
+        else if (nextStep instanceof PropertiesStep && (nextStep.getNextStep() instanceof MinGlobalStep || nextStep.getNextStep() instanceof MaxGlobalStep))
+            applyMinMax(graphStep, (PropertiesStep<?>) nextStep, nextStep.getNextStep() instanceof MinGlobalStep);
+    }
+
+    private static void applyOrderLimit(final OrientGraphStep<?, ?> graphStep, final OrderGlobalStep<?, ?> orderStep, final RangeGlobalStep<?> rangeStep,
+            final Traversal.Admin<?, ?> traversal) {
+        final List<? extends Pair<? extends Traversal.Admin<?, ?>, ? extends Comparator<?>>> comparators = orderStep.getComparators();
+        if (comparators.size() != 1 || !(comparators.get(0).getValue0() instanceof ElementValueTraversal))
+            return;
+        final Comparator<?> comparator = comparators.get(0).getValue1();
+        if (comparator != Order.incr && comparator != Order.decr)
+            return;
+
+        final String key = ((ElementValueTraversal<?>) comparators.get(0).getValue0()).getPropertyKey();
+        if (!findUsableOrderIndex(graphStep, key).isPresent())
+            return;
+
+        graphStep.setOrder(key, comparator == Order.incr);
+        orderStep.getLabels().forEach(graphStep::addLabel);
+        traversal.removeStep(orderStep);
+        OrientGraphStepStrategy.foldInRange(graphStep, rangeStep, traversal);
+    }
+
+    private static void applyMinMax(final OrientGraphStep<?, ?> graphStep, final PropertiesStep<?> propertiesStep, final boolean min) {
+        if (propertiesStep.getReturnType() != PropertyType.VALUE || propertiesStep.getPropertyKeys().length != 1)
+            return;
+
+        final String key = propertiesStep.getPropertyKeys()[0];
+        final Optional<OIndex<?>> index = findUsableOrderIndex(graphStep, key);
+        // min() and max() only apply to numbers
+        if (!index.isPresent() || !Number.class.isAssignableFrom(index.get().getKeyTypes()[0].getDefaultJavaType()))
+            return;
+
+        // the first element of the index has the min (or max) value, the
+        // elements without the key are skipped by values(key) as well
+        graphStep.setOrder(key, min);
+        graphStep.addHasContainer(new HasContainer(key, P.neq(null)));
+        graphStep.setRange(0, 1);
+    }
+
+    /**
+     * @return the index to order by, if there is one and no other index
+     *         would be used for the has() predicates of the step
+     */
+    private static Optional<OIndex<?>> findUsableOrderIndex(final OrientGraphStep<?, ?> graphStep, final String key) {
+        final Optional<OIndex<?>> index = graphStep.findOrderIndex(key);
+        if (!index.isPresent())
+            return Optional.empty();
+        final Set<OrientIndexQuery> indexQueries = graphStep.findIndex();
+        if (!indexQueries.stream().allMatch(query -> query.index.getName().equals(index.get().getName())))
+            return Optional.empty();
+        return index;
+    }
+
+    @Override
+    public Set<Class<? extends ProviderOptimizationStrategy>> applyPrior() {
+        return Collections.singleton(OrientGraphStepStrategy.class);
+    }
+
+    public static OrientGraphOrderStrategy instance() {
+        return INSTANCE;
+    }
+}
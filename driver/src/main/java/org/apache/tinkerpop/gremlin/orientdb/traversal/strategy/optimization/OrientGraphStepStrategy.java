@@ -5,6 +5,7 @@ import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.RangeGlobalStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
@@ -34,6 +35,30 @@ public final class OrientGraphStepStrategy
                 traversal.removeStep(currentStep);
                 currentStep = currentStep.getNextStep();
             }
+
+            if (currentStep instanceof RangeGlobalStep)
+                foldInRange(orientGraphStep, (RangeGlobalStep<?>) currentStep, traversal);
+        }
+    }
+
+    /**
+     * Lets the graph step stop reading once the upper bound of the range is
+     * reached. Offsets are skipped by the graph step as well, but only if it
+     * runs once - a mid traversal V() is executed for every incoming
+     * traverser while the range applies to all of them. The range step stays
+     * in place (with the offset removed) to keep its labels and semantics.
+     */
+    static void foldInRange(final OrientGraphStep<?, ?> orientGraphStep, final RangeGlobalStep<?> rangeStep, final Traversal.Admin<?, ?> traversal) {
+        final long low = rangeStep.getLowRange();
+        final long high = rangeStep.getHighRange();
+
+        if (low > 0 && orientGraphStep.isStartStep()) {
+            orientGraphStep.setRange(low, high);
+            final RangeGlobalStep<?> remainingRange = new RangeGlobalStep<>(traversal, 0, high < 0 ? -1 : high - low);
+            rangeStep.getLabels().forEach(remainingRange::addLabel);
+            TraversalHelper.replaceStep((Step) rangeStep, (Step) remainingRange, traversal);
+        } else if (high >= 0) {
+            orientGraphStep.setRange(0, high);
         }
     }
 
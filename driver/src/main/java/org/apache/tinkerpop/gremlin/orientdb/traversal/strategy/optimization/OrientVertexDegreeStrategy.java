@@ -0,0 +1,74 @@
+package org.apache.tinkerpop.gremlin.orientdb.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.orientdb.traversal.step.map.OrientVertexDegreeStep;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.NotStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.TraversalFilterStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.CountGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Replaces the adjacent vertex or edge steps which are only counted
+ * (<code>out("x").count()</code>, <code>outE().count()</code>) or only
+ * checked for existence (<code>where(outE("x"))</code>,
+ * <code>not(inE())</code>) with an {@link OrientVertexDegreeStep}, which
+ * reads the sizes of the edge bags instead of loading the edges.
+ */
+public final class OrientVertexDegreeStrategy
+        extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy>
+        implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final OrientVertexDegreeStrategy INSTANCE = new OrientVertexDegreeStrategy();
+
+    private OrientVertexDegreeStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        // the vertices and edges are needed for the path
+        if (TraversalHelper.anyStepRecursively(step -> step.getRequirements().contains(TraverserRequirement.PATH)
+                || step.getRequirements().contains(TraverserRequirement.LABELED_PATH), TraversalHelper.getRootTraversal(traversal)))
+            return;
+
+        // a filter only checks whether its child traversal returns anything
+        final Step<?, ?> parent = traversal.getParent().asStep();
+        final boolean filterChild = (parent instanceof TraversalFilterStep || parent instanceof NotStep)
+                && traversal.getSteps().size() == 1 && traversal.getStartStep() instanceof VertexStep;
+
+        for (final VertexStep<?> vertexStep : TraversalHelper.getStepsOfClass(VertexStep.class, traversal)) {
+            if (!vertexStep.getLabels().isEmpty())
+                continue;
+
+            final boolean existence = filterChild;
+            if (!existence && !(vertexStep.getNextStep() instanceof CountGlobalStep))
+                continue;
+
+            final OrientVertexDegreeStep<?> degreeStep = new OrientVertexDegreeStep<>(traversal, vertexStep.getDirection(), vertexStep.getEdgeLabels(), existence);
+            TraversalHelper.replaceStep((Step) vertexStep, (Step) degreeStep, traversal);
+        }
+    }
+
+    @Override
+    public Set<Class<? extends ProviderOptimizationStrategy>> applyPrior() {
+        // edges filtered by has() have to be loaded
+        return Collections.singleton(OrientVertexStepStrategy.class);
+    }
+
+    @Override
+    public Set<Class<? extends ProviderOptimizationStrategy>> applyPost() {
+        // counted vertices don't need to be loaded in batches
+        return Collections.singleton(OrientBatchVertexStepStrategy.class);
+    }
+
+    public static OrientVertexDegreeStrategy instance() {
+        return INSTANCE;
+    }
+}
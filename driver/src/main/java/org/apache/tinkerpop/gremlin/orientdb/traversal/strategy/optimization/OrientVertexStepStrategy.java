@@ -0,0 +1,82 @@
+package org.apache.tinkerpop.gremlin.orientdb.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.orientdb.traversal.step.map.OrientVertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.HasStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.EdgeOtherVertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.EdgeVertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+
+/**
+ * Folds the has() steps following <code>outE()</code>, <code>inE()</code> or
+ * <code>bothE()</code>, and the <code>inV()</code>, <code>outV()</code>,
+ * <code>bothV()</code> or <code>otherV()</code> step after them, into an
+ * {@link OrientVertexStep}. Only the last of the folded steps may be labeled,
+ * and nothing may need the path, since the edges aren't traversers anymore.
+ */
+public final class OrientVertexStepStrategy
+        extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy>
+        implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final OrientVertexStepStrategy INSTANCE = new OrientVertexStepStrategy();
+
+    private OrientVertexStepStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (TraversalHelper.anyStepRecursively(step -> step.getRequirements().contains(TraverserRequirement.PATH),
+                TraversalHelper.getRootTraversal(traversal)))
+            return;
+
+        for (final VertexStep<?> vertexStep : TraversalHelper.getStepsOfClass(VertexStep.class, traversal)) {
+            if (!vertexStep.returnsEdge())
+                continue;
+
+            Step<?, ?> lastStep = vertexStep;
+            Step<?, ?> currentStep = vertexStep.getNextStep();
+            int hasSteps = 0;
+            while (currentStep instanceof HasStep && lastStep.getLabels().isEmpty()) {
+                lastStep = currentStep;
+                currentStep = currentStep.getNextStep();
+                hasSteps++;
+            }
+
+            Direction vertexDirection = null;
+            boolean otherVertex = false;
+            if (lastStep.getLabels().isEmpty() && currentStep instanceof EdgeVertexStep) {
+                vertexDirection = ((EdgeVertexStep) currentStep).getDirection();
+                lastStep = currentStep;
+            } else if (lastStep.getLabels().isEmpty() && currentStep instanceof EdgeOtherVertexStep) {
+                otherVertex = true;
+                lastStep = currentStep;
+            } else if (hasSteps == 0)
+                // nothing to fold
+                continue;
+
+            final OrientVertexStep<?> orientVertexStep = new OrientVertexStep<>(traversal, vertexStep.getDirection(), vertexStep.getEdgeLabels(),
+                    vertexDirection, otherVertex);
+            lastStep.getLabels().forEach(orientVertexStep::addLabel);
+            final Step<?, ?> endStep = lastStep.getNextStep();
+            Step<?, ?> step = vertexStep.getNextStep();
+            while (step != endStep) {
+                final Step<?, ?> nextStep = step.getNextStep();
+                if (step instanceof HasStep)
+                    ((HasStep<?>) step).getHasContainers().forEach(orientVertexStep::addHasContainer);
+                traversal.removeStep(step);
+                step = nextStep;
+            }
+            TraversalHelper.replaceStep((Step) vertexStep, (Step) orientVertexStep, traversal);
+        }
+    }
+
+    public static OrientVertexStepStrategy instance() {
+        return INSTANCE;
+    }
+}
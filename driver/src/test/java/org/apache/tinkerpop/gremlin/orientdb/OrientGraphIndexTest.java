@@ -1,5 +1,6 @@
 package org.apache.tinkerpop.gremlin.orientdb;
 
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
 import com.orientechnologies.orient.core.index.OIndex;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.metadata.schema.OType;
@@ -15,12 +16,14 @@ import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static junit.framework.TestCase.assertTrue;
 import static org.apache.tinkerpop.gremlin.structure.T.label;
@@ -63,6 +66,21 @@ public class OrientGraphIndexTest {
         graph.addVertex(label, vertexLabel2, key, value);
     }
 
+    @Test
+    public void indexQueryCanBeExecutedTwice() {
+        OrientGraph graph = newGraph();
+        createVertexIndexLabel(graph, vertexLabel1);
+        Vertex v1 = graph.addVertex(label, vertexLabel1, key, "value1");
+        graph.addVertex(label, vertexLabel1, key, "value2");
+        Vertex v3 = graph.addVertex(label, vertexLabel1, key, "value3");
+
+        OrientIndexQuery query = findUsedIndex(graph.traversal().V().hasLabel(vertexLabel1).has(key, P.within("value1", "value3"))).iterator().next();
+        for (int i = 0; i < 2; i++) {
+            List<Object> ids = graph.getIndexedVertices(query).map(Vertex::id).collect(Collectors.toList());
+            Assert.assertEquals(Arrays.asList(v1.id(), v3.id()), ids);
+        }
+    }
+
     @Test
     public void edgeUniqueConstraint() {
         OrientGraph graph = newGraph();
@@ -144,6 +162,42 @@ public class OrientGraphIndexTest {
         assertTrue(valueFound(indicies, v3, value1));
     }
 
+    @Test
+    public void vertexIndexLookupWithMultipleLabelsInParallel() {
+        OrientGraphFactory factory = new OrientGraphFactory(URL + UUID.randomUUID(), "root", "root").setupPool(1, 5).setParallelIndexLookups(true);
+        OrientGraph graph = factory.getNoTx();
+        List<String> labels = Arrays.asList("label1", "label2", "label3");
+        for (String vertexLabel : labels) {
+            createVertexIndexLabel(graph, vertexLabel);
+            graph.addVertex(label, vertexLabel, key, "value1");
+            graph.addVertex(label, vertexLabel, key, "value2");
+        }
+
+        List<Vertex> result = graph.traversal().V().hasLabel("label1", "label2", "label3").has(key, P.within("value1", "value3")).toList();
+        Assert.assertEquals(3, result.size());
+        Assert.assertEquals(new HashSet<>(labels), result.stream().map(Vertex::label).collect(Collectors.toSet()));
+        Assert.assertTrue(result.stream().allMatch(v -> "value1".equals(v.value(key))));
+        // the lookups don't change the database of the current thread
+        Assert.assertSame(graph.getRawDatabase(), ODatabaseRecordThreadLocal.INSTANCE.get());
+        factory.close();
+    }
+
+    @Test
+    public void indexStatisticsAreSharedByTheGraphsOfAFactory() {
+        String url = URL + UUID.randomUUID();
+        OrientGraphFactory factory = new OrientGraphFactory(url, "root", "root");
+        OrientGraph graph = factory.getNoTx();
+        OrientIndexStatistics statistics = graph.getIndexStatistics();
+        Assert.assertSame(statistics, factory.getNoTx().getIndexStatistics());
+        Assert.assertNotSame(statistics, new OrientGraphFactory(url, "root", "root").getNoTx().getIndexStatistics());
+
+        // a schema change replaces them
+        graph.makeActive();
+        createVertexIndexLabel(graph, vertexLabel1);
+        Assert.assertNotSame(statistics, graph.getIndexStatistics());
+        factory.close();
+    }
+
     private static boolean valueFound(Set<OrientIndexQuery> indicies, Vertex v, String value) {
         for (OrientIndexQuery index : indicies) {
             if (v.id().equals(index.index.get(value))) {
@@ -266,6 +320,255 @@ public class OrientGraphIndexTest {
         });
     }
 
+    @Test
+    public void vertexIndexRangeLookup() {
+        OrientGraph graph = newGraph();
+        Configuration config = new BaseConfiguration();
+        config.setProperty("type", OClass.INDEX_TYPE.NOTUNIQUE.name());
+        config.setProperty("keytype", OType.INTEGER);
+        graph.createVertexIndex(key, vertexLabel1, config);
+
+        for (int i = 1; i <= 10; i++)
+            graph.addVertex(label, vertexLabel1, key, i);
+        graph.addVertex(label, vertexLabel2, key, 5);
+
+        {
+            GraphTraversal<Vertex, Object> traversal = graph.traversal().V().hasLabel(vertexLabel1).has(key, P.between(3, 6)).values(key);
+            Set<OrientIndexQuery> indexQueries = findUsedIndex(traversal);
+            Assert.assertEquals(1, indexQueries.size());
+            Assert.assertTrue(indexQueries.iterator().next().isRange());
+            Assert.assertEquals(new HashSet<>(Arrays.asList(3, 4, 5)), new HashSet<>(traversal.toList()));
+        }
+
+        {
+            GraphTraversal<Vertex, Object> traversal = graph.traversal().V().hasLabel(vertexLabel1).has(key, P.gt(8)).values(key);
+            Assert.assertTrue(findUsedIndex(traversal).iterator().next().isRange());
+            Assert.assertEquals(new HashSet<>(Arrays.asList(9, 10)), new HashSet<>(traversal.toList()));
+        }
+
+        {
+            GraphTraversal<Vertex, Object> traversal = graph.traversal().V().hasLabel(vertexLabel1).has(key, P.gte(4)).has(key, P.lte(5)).values(key);
+            Assert.assertEquals(1, findUsedIndex(traversal).size());
+            Assert.assertEquals(new HashSet<>(Arrays.asList(4, 5)), new HashSet<>(traversal.toList()));
+        }
+
+        {
+            GraphTraversal<Vertex, Object> traversal = graph.traversal().V().hasLabel(vertexLabel1).has(key, P.outside(2, 9)).values(key);
+            Assert.assertEquals(2, findUsedIndex(traversal).size());
+            Assert.assertEquals(new HashSet<>(Arrays.asList(1, 10)), new HashSet<>(traversal.toList()));
+        }
+
+        {
+            // overlapping sides of a disjunction are read once
+            GraphTraversal<Vertex, Object> traversal = graph.traversal().V().hasLabel(vertexLabel1).has(key, P.lt(3).or(P.lt(5))).values(key);
+            Assert.assertEquals(1, findUsedIndex(traversal).size());
+            List<Object> values = traversal.toList();
+            Collections.sort(values, (a, b) -> Integer.compare((Integer) a, (Integer) b));
+            Assert.assertEquals(Arrays.asList(1, 2, 3, 4), values);
+            Assert.assertEquals(Long.valueOf(4), graph.traversal().V().hasLabel(vertexLabel1).has(key, P.lt(3).or(P.lt(5))).count().next());
+            Assert.assertEquals(Long.valueOf(6), graph.traversal().V().hasLabel(vertexLabel1).has(key, P.lte(3).or(P.gte(3).and(P.lt(7)))).count().next());
+        }
+    }
+
+    @Test
+    public void vertexIndexPrefixLookup() {
+        OrientGraph graph = newGraph();
+        Configuration config = new BaseConfiguration();
+        config.setProperty("type", OClass.INDEX_TYPE.NOTUNIQUE.name());
+        config.setProperty("keytype", OType.STRING);
+        graph.createVertexIndex(key, vertexLabel1, config);
+
+        config.setProperty("collate", "ci");
+        graph.createVertexIndex(key, vertexLabel2, config);
+
+        for (String value : Arrays.asList("abc", "abd", "ABe", "b", "a")) {
+            graph.addVertex(label, vertexLabel1, key, value);
+            graph.addVertex(label, vertexLabel2, key, value);
+        }
+
+        {
+            GraphTraversal<Vertex, Object> traversal = graph.traversal().V().hasLabel(vertexLabel1).has(key, OrientP.prefix("ab")).values(key);
+            Set<OrientIndexQuery> indexQueries = findUsedIndex(traversal);
+            Assert.assertEquals(1, indexQueries.size());
+            Assert.assertTrue(indexQueries.iterator().next().isRange());
+            Assert.assertEquals(new HashSet<>(Arrays.asList("abc", "abd")), new HashSet<>(traversal.toList()));
+        }
+
+        {
+            GraphTraversal<Vertex, Object> traversal = graph.traversal().V().hasLabel(vertexLabel1).has(key, OrientP.prefix("ab").or(OrientP.prefix("abc"))).values(key);
+            List<Object> values = traversal.toList();
+            Assert.assertEquals(2, values.size());
+            Assert.assertEquals(new HashSet<>(Arrays.asList("abc", "abd")), new HashSet<>(values));
+            Assert.assertEquals(Long.valueOf(2),
+                    graph.traversal().V().hasLabel(vertexLabel1).has(key, OrientP.prefix("ab").or(OrientP.prefix("abc"))).count().next());
+        }
+
+        {
+            // the case insensitive index finds all the candidates, the predicate stays case sensitive
+            GraphTraversal<Vertex, Object> traversal = graph.traversal().V().hasLabel(vertexLabel2).has(key, OrientP.prefix("AB")).values(key);
+            Set<OrientIndexQuery> indexQueries = findUsedIndex(traversal);
+            Assert.assertEquals(1, indexQueries.size());
+            Assert.assertEquals("ab", indexQueries.iterator().next().fromKey);
+            Assert.assertEquals(Arrays.asList("ABe"), traversal.toList());
+        }
+
+        {
+            // range predicates can't be answered from the case insensitive index
+            GraphTraversal<Vertex, Object> traversal = graph.traversal().V().hasLabel(vertexLabel2).has(key, P.gt("ab")).values(key);
+            Assert.assertTrue(findUsedIndex(traversal).isEmpty());
+            Assert.assertEquals(new HashSet<>(Arrays.asList("abc", "abd", "b")), new HashSet<>(traversal.toList()));
+        }
+
+        {
+            // the range ends before the successor of the prefix, keys with the largest character after the prefix are in it
+            graph.addVertex(label, vertexLabel1, key, "ab\uFFFFx");
+            graph.addVertex(label, vertexLabel1, key, "ac");
+            GraphTraversal<Vertex, Object> traversal = graph.traversal().V().hasLabel(vertexLabel1).has(key, OrientP.prefix("ab")).values(key);
+            OrientIndexQuery indexQuery = findUsedIndex(traversal).iterator().next();
+            Assert.assertEquals("ac", indexQuery.toKey);
+            Assert.assertFalse(indexQuery.toInclusive);
+            Assert.assertEquals(new HashSet<>(Arrays.asList("abc", "abd", "ab\uFFFFx")), new HashSet<>(traversal.toList()));
+            Assert.assertEquals(Arrays.asList("ab\uFFFFx"),
+                    graph.traversal().V().hasLabel(vertexLabel1).has(key, OrientP.prefix("ab\uFFFF")).values(key).toList());
+        }
+
+        {
+            // the successor is the one of the collated prefix, "az" > "a["
+            graph.addVertex(label, vertexLabel2, key, "aZz");
+            Assert.assertEquals(Arrays.asList("aZz"), graph.traversal().V().hasLabel(vertexLabel2).has(key, OrientP.prefix("aZ")).values(key).toList());
+        }
+    }
+
+    @Test
+    public void vertexIndexIntersection() {
+        OrientGraph graph = newGraph();
+        Configuration config = new BaseConfiguration();
+        config.setProperty("type", OClass.INDEX_TYPE.NOTUNIQUE.name());
+        config.setProperty("keytype", OType.STRING);
+        graph.createVertexIndex("country", vertexLabel1, config);
+        config.setProperty("keytype", OType.INTEGER);
+        graph.createVertexIndex("age", vertexLabel1, config);
+
+        for (int i = 0; i < 100; i++)
+            graph.addVertex(label, vertexLabel1, "country", "c" + (i % 10), "age", i / 10, key, "v" + i);
+
+        GraphTraversal<Vertex, Object> traversal = graph.traversal().V().hasLabel(vertexLabel1).has("country", "c3").has("age", 4).values(key);
+        Set<OrientIndexQuery> indexQueries = findUsedIndex(traversal);
+        Assert.assertEquals(1, indexQueries.size());
+        Assert.assertEquals(1, indexQueries.iterator().next().getIntersections().size());
+        Assert.assertEquals(Arrays.asList("v43"), traversal.toList());
+
+        traversal = graph.traversal().V().hasLabel(vertexLabel1).has("country", "c3").has("age", P.gte(8)).values(key);
+        Assert.assertEquals(new HashSet<>(Arrays.asList("v83", "v93")), new HashSet<>(traversal.toList()));
+    }
+
+    @Test
+    public void vertexCompositeIndexLookup() {
+        OrientGraph graph = newGraph();
+        String className = graph.createVertexClass(vertexLabel1);
+        OClass cls = graph.getRawDatabase().getMetadata().getSchema().getClass(className);
+        cls.createProperty("tenant", OType.STRING);
+        cls.createProperty("status", OType.STRING);
+        cls.createIndex(className + ".tenant_status", OClass.INDEX_TYPE.NOTUNIQUE, "tenant", "status");
+        createVertexIndexLabel(graph, vertexLabel1);
+
+        Vertex v1 = graph.addVertex(label, vertexLabel1, "tenant", "t1", "status", "open", key, "v1");
+        Vertex v2 = graph.addVertex(label, vertexLabel1, "tenant", "t1", "status", "closed", key, "v2");
+        Vertex v3 = graph.addVertex(label, vertexLabel1, "tenant", "t2", "status", "open", key, "v3");
+
+        {
+            // both keys match the composite index
+            GraphTraversal<Vertex, Vertex> traversal = graph.traversal().V().hasLabel(vertexLabel1).has("tenant", "t1").has("status", "open");
+            Set<OrientIndexQuery> indexQueries = findUsedIndex(traversal);
+            Assert.assertEquals(1, indexQueries.size());
+            Assert.assertEquals(className + ".tenant_status", indexQueries.iterator().next().index.getName());
+            Assert.assertFalse(indexQueries.iterator().next().isRange());
+
+            List<Vertex> result = traversal.toList();
+            Assert.assertEquals(1, result.size());
+            Assert.assertEquals(v1.id(), result.get(0).id());
+        }
+
+        {
+            // prefix match on the composite index
+            GraphTraversal<Vertex, Vertex> traversal = graph.traversal().V().hasLabel(vertexLabel1).has("tenant", "t1");
+            Set<OrientIndexQuery> indexQueries = findUsedIndex(traversal);
+            Assert.assertEquals(1, indexQueries.size());
+            Assert.assertTrue(indexQueries.iterator().next().isRange());
+
+            List<Vertex> result = traversal.toList();
+            Assert.assertEquals(2, result.size());
+            Assert.assertTrue(result.stream().map(Vertex::id).anyMatch(v1.id()::equals));
+            Assert.assertTrue(result.stream().map(Vertex::id).anyMatch(v2.id()::equals));
+        }
+
+        {
+            // a unique index on a single key wins over a partial composite match
+            GraphTraversal<Vertex, Vertex> traversal = graph.traversal().V().hasLabel(vertexLabel1).has("tenant", "t2").has(key, "v3");
+            Set<OrientIndexQuery> indexQueries = findUsedIndex(traversal);
+            Assert.assertEquals(1, indexQueries.size());
+            Assert.assertEquals(className + "." + key, indexQueries.iterator().next().index.getName());
+
+            List<Vertex> result = traversal.toList();
+            Assert.assertEquals(1, result.size());
+            Assert.assertEquals(v3.id(), result.get(0).id());
+        }
+    }
+
+    @Test
+    public void vertexHashCompositeIndexPrefixIsNotUsed() {
+        OrientGraph graph = newGraph();
+        String className = graph.createVertexClass(vertexLabel1);
+        OClass cls = graph.getRawDatabase().getMetadata().getSchema().getClass(className);
+        cls.createProperty("tenant", OType.STRING);
+        cls.createProperty("status", OType.STRING);
+        cls.createIndex(className + ".tenant_status", OClass.INDEX_TYPE.NOTUNIQUE_HASH_INDEX.name(), "tenant", "status");
+
+        Vertex v1 = graph.addVertex(label, vertexLabel1, "tenant", "t1", "status", "open");
+        Vertex v2 = graph.addVertex(label, vertexLabel1, "tenant", "t1", "status", "closed");
+        graph.addVertex(label, vertexLabel1, "tenant", "t2", "status", "open");
+
+        {
+            // a hash index can't iterate over the keys of a prefix, the class is scanned
+            GraphTraversal<Vertex, Vertex> traversal = graph.traversal().V().hasLabel(vertexLabel1).has("tenant", "t1");
+            Assert.assertTrue(findUsedIndex(traversal).isEmpty());
+
+            List<Vertex> result = traversal.toList();
+            Assert.assertEquals(2, result.size());
+            Assert.assertTrue(result.stream().map(Vertex::id).anyMatch(v1.id()::equals));
+            Assert.assertTrue(result.stream().map(Vertex::id).anyMatch(v2.id()::equals));
+        }
+
+        {
+            // both keys match, the hash index is looked up by key
+            GraphTraversal<Vertex, Vertex> traversal = graph.traversal().V().hasLabel(vertexLabel1).has("tenant", "t1").has("status", "open");
+            Assert.assertEquals(1, findUsedIndex(traversal).size());
+            Assert.assertEquals(Arrays.asList(v1), traversal.toList());
+        }
+    }
+
+    @Test
+    public void mostSelectiveIndexIsUsed() {
+        OrientGraph graph = newGraph();
+        Configuration config = new BaseConfiguration();
+        config.setProperty("type", OClass.INDEX_TYPE.NOTUNIQUE.name());
+        config.setProperty("keytype", OType.STRING);
+        graph.createVertexIndex("status", vertexLabel1, config);
+        createVertexIndexLabel(graph, vertexLabel1);
+
+        for (int i = 0; i < 20; i++)
+            graph.addVertex(label, vertexLabel1, "status", "active", key, "value" + i);
+
+        GraphTraversal<Vertex, Vertex> traversal = graph.traversal().V().hasLabel(vertexLabel1).has("status", "active").has(key, "value3");
+        Set<OrientIndexQuery> indexQueries = findUsedIndex(traversal);
+        Assert.assertEquals(1, indexQueries.size());
+        Assert.assertEquals(graph.labelToClassName(vertexLabel1, OClass.VERTEX_CLASS_NAME) + "." + key, indexQueries.iterator().next().index.getName());
+
+        List<Vertex> result = traversal.toList();
+        Assert.assertEquals(1, result.size());
+        Assert.assertEquals("value3", result.get(0).value(key));
+    }
+
     //TODO: fix
     @Test
     public void indexCollation() {
@@ -1,13 +1,43 @@
 package org.apache.tinkerpop.gremlin.orientdb;
 
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OSchema;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.apache.tinkerpop.gremlin.orientdb.traversal.step.map.OrientBatchVertexStep;
+import org.apache.tinkerpop.gremlin.orientdb.traversal.step.map.OrientGraphCountStep;
+import org.apache.tinkerpop.gremlin.orientdb.traversal.step.map.OrientGraphGroupCountStep;
+import org.apache.tinkerpop.gremlin.orientdb.traversal.step.map.OrientGraphIndexValuesStep;
+import org.apache.tinkerpop.gremlin.orientdb.traversal.step.map.OrientVertexDegreeStep;
+import org.apache.tinkerpop.gremlin.orientdb.traversal.step.map.OrientVertexStep;
 import org.apache.tinkerpop.gremlin.orientdb.traversal.step.sideEffect.OrientGraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
 import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Path;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
 import org.apache.tinkerpop.gremlin.process.traversal.step.filter.HasStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.RangeGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 // copy of TinkerGraphStepStrategyTest
 public class OrientGraphStepStrategyTest {
@@ -66,4 +96,324 @@ public class OrientGraphStepStrategyTest {
         assertEquals(HasStep.class, traversal.getEndStep().getClass());
     }
 
+    @Test
+    public void shouldFoldInRange() {
+        OrientGraph graph = new OrientGraphFactory(URL + "-range", "root", "root").getNoTx();
+        for (int i = 0; i < 10; i++)
+            graph.addVertex("name", "marko", "position", i);
+        GraphTraversalSource g = graph.traversal();
+
+        GraphTraversal.Admin<Vertex, Vertex> traversal = g.V().has("name", "marko").limit(3).asAdmin();
+        traversal.applyStrategies();
+
+        assertEquals(2, traversal.getSteps().size());
+        OrientGraphStep<?, ?> graphStep = (OrientGraphStep<?, ?>) traversal.getStartStep();
+        assertEquals(0, graphStep.getOffset());
+        assertEquals(3, graphStep.getLimit());
+        assertEquals(3, traversal.toList().size());
+
+        traversal = g.V().has("name", "marko").range(2, 5).asAdmin();
+        traversal.applyStrategies();
+
+        graphStep = (OrientGraphStep<?, ?>) traversal.getStartStep();
+        assertEquals(2, graphStep.getOffset());
+        assertEquals(5, graphStep.getLimit());
+        assertEquals(0, ((RangeGlobalStep<?>) traversal.getEndStep()).getLowRange());
+        assertEquals(3, ((RangeGlobalStep<?>) traversal.getEndStep()).getHighRange());
+
+        List<Vertex> all = g.V().has("name", "marko").toList();
+        assertEquals(all.subList(2, 5), traversal.toList());
+        assertEquals(all.subList(8, 10), g.V().has("name", "marko").range(8, 20).toList());
+    }
+
+    @Test
+    public void shouldCountWithoutLoading() {
+        OrientGraph graph = new OrientGraphFactory(URL + "-count", "root", "root").getNoTx();
+        String className = graph.createVertexClass("person");
+        OClass cls = graph.getRawDatabase().getMetadata().getSchema().getClass(className);
+        cls.createProperty("age", OType.INTEGER);
+        cls.createIndex(className + ".age", OClass.INDEX_TYPE.NOTUNIQUE, "age");
+        for (int i = 0; i < 10; i++)
+            graph.addVertex(T.label, "person", "age", i % 5);
+        graph.addVertex(T.label, "software", "age", 1);
+        GraphTraversalSource g = graph.traversal();
+
+        GraphTraversal.Admin<Vertex, Long> traversal = g.V().hasLabel("person").count().asAdmin();
+        traversal.applyStrategies();
+        assertEquals(1, traversal.getSteps().size());
+        assertEquals(OrientGraphCountStep.class, traversal.getStartStep().getClass());
+        assertEquals(Long.valueOf(10), traversal.next());
+
+        assertEquals(Long.valueOf(11), g.V().count().next());
+        assertEquals(Long.valueOf(11), g.V().hasLabel("person", "software").count().next());
+        assertEquals(Long.valueOf(0), g.V().hasLabel("unknown").count().next());
+        assertEquals(Long.valueOf(2), g.V().hasLabel("person").has("age", 3).count().next());
+        assertEquals(Long.valueOf(4), g.V().hasLabel("person").has("age", P.within(1, 2)).count().next());
+        assertEquals(Long.valueOf(6), g.V().hasLabel("person").has("age", P.between(1, 4)).count().next());
+        assertEquals(Long.valueOf(4), g.V().hasLabel("person").has("age", P.outside(1, 3)).count().next());
+        // not answered by the index, but still counted correctly
+        assertEquals(Long.valueOf(2), g.V().hasLabel("person").has("age", 3L).count().next());
+        assertEquals(Long.valueOf(3), g.V().has("age", 1).count().next());
+        assertEquals(Long.valueOf(3), g.V().hasLabel("person").range(2, 5).count().next());
+    }
+
+    @Test
+    public void shouldScanOnlyLabelClasses() {
+        OrientGraph graph = new OrientGraphFactory(URL + "-scan", "root", "root").getNoTx();
+        String personClass = graph.createVertexClass("person");
+        OSchema schema = graph.getRawDatabase().getMetadata().getSchema();
+        schema.createClass(graph.labelToClassName("employee", OClass.VERTEX_CLASS_NAME), schema.getClass(personClass));
+        graph.addVertex(T.label, "person", "name", "marko");
+        graph.addVertex(T.label, "person", "name", "vadas");
+        graph.addVertex(T.label, "employee", "name", "marko");
+        graph.addVertex(T.label, "software", "name", "lop");
+        GraphTraversalSource g = graph.traversal();
+
+        assertEquals(2, g.V().hasLabel("person").toList().size());
+        assertEquals(1, g.V().hasLabel("person").has("name", "marko").toList().size());
+        assertEquals(2, g.V().hasLabel("person", "employee").has("name", "marko").toList().size());
+        assertEquals(3, g.V().hasLabel("person", "software", "unknown").toList().size());
+        assertEquals(0, g.V().hasLabel("unknown").toList().size());
+        assertEquals(2, g.V().hasLabel(P.neq("person")).toList().size());
+    }
+
+    @Test
+    public void shouldOrderByIndex() {
+        OrientGraph graph = new OrientGraphFactory(URL + "-order", "root", "root").getNoTx();
+        Configuration config = new BaseConfiguration();
+        config.setProperty("type", OClass.INDEX_TYPE.NOTUNIQUE.name());
+        config.setProperty("keytype", OType.INTEGER);
+        graph.createVertexIndex("ts", "event", config);
+        for (int i = 0; i < 20; i++)
+            graph.addVertex(T.label, "event", "ts", (i * 7) % 20);
+        GraphTraversalSource g = graph.traversal();
+
+        GraphTraversal.Admin<Vertex, Object> traversal = g.V().hasLabel("event").order().by("ts", Order.decr).limit(3).values("ts").asAdmin();
+        traversal.applyStrategies();
+        OrientGraphStep<?, ?> graphStep = (OrientGraphStep<?, ?>) traversal.getStartStep();
+        assertEquals("ts", graphStep.getOrderKey());
+        assertEquals(false, graphStep.isOrderAscending());
+        assertEquals(3, graphStep.getLimit());
+        assertEquals(Arrays.asList(19, 18, 17), traversal.toList());
+
+        assertEquals(Arrays.asList(6, 7), g.V().hasLabel("event").has("ts", P.gt(5)).order().by("ts", Order.incr).limit(2).values("ts").toList());
+        assertEquals(19, ((Number) g.V().hasLabel("event").values("ts").max().next()).intValue());
+        assertEquals(0, ((Number) g.V().hasLabel("event").values("ts").min().next()).intValue());
+
+        // an element without the key fails to be ordered, as without the index
+        graph.addVertex(T.label, "event");
+        try {
+            g.V().hasLabel("event").order().by("ts", Order.decr).limit(3).values("ts").toList();
+            fail("must throw for an element without the key");
+        } catch (IllegalStateException e) {
+        }
+        // unless it's filtered out by a predicate on the key
+        assertEquals(Arrays.asList(6, 7), g.V().hasLabel("event").has("ts", P.gt(5)).order().by("ts", Order.incr).limit(2).values("ts").toList());
+        assertEquals(19, ((Number) g.V().hasLabel("event").values("ts").max().next()).intValue());
+        assertEquals(0, ((Number) g.V().hasLabel("event").values("ts").min().next()).intValue());
+    }
+
+    @Test
+    public void shouldOrderNumbersOfDifferentTypes() {
+        OrientGraph graph = new OrientGraphFactory(URL + "-ordermixed", "root", "root").getNoTx();
+        Object[] ids = { graph.addVertex(T.label, "payment", "amount", 3).id(), graph.addVertex(T.label, "payment", "amount", 2L).id(),
+                graph.addVertex(T.label, "payment", "amount", 2.5d).id(), graph.addVertex(T.label, "payment", "amount", 10).id() };
+        GraphTraversalSource g = graph.traversal();
+
+        // the elements of the ids are sorted as well if the step has an order
+        GraphTraversal.Admin<Vertex, Vertex> traversal = g.V(ids).asAdmin();
+        traversal.applyStrategies();
+        ((OrientGraphStep<?, ?>) traversal.getStartStep()).setOrder("amount", false);
+        assertEquals(Arrays.asList(10, 3, 2.5d, 2L), traversal.toStream().map(v -> v.value("amount")).collect(Collectors.toList()));
+
+        traversal = g.V().hasLabel("payment").asAdmin();
+        traversal.applyStrategies();
+        ((OrientGraphStep<?, ?>) traversal.getStartStep()).setOrder("amount", true);
+        assertEquals(Arrays.asList(2L, 2.5d, 3, 10), traversal.toStream().map(v -> v.value("amount")).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void shouldReadValuesFromCoveringIndex() {
+        OrientGraph graph = new OrientGraphFactory(URL + "-covering", "root", "root").getNoTx();
+        String className = graph.createVertexClass("user");
+        OClass cls = graph.getRawDatabase().getMetadata().getSchema().getClass(className);
+        cls.createProperty("age", OType.INTEGER);
+        cls.createIndex(className + ".age", OClass.INDEX_TYPE.NOTUNIQUE, "age");
+        for (int i = 0; i < 10; i++)
+            graph.addVertex(T.label, "user", "age", i % 4);
+        graph.addVertex(T.label, "user");
+        GraphTraversalSource g = graph.traversal();
+
+        GraphTraversal.Admin<Vertex, Object> traversal = g.V().hasLabel("user").values("age").dedup().asAdmin();
+        traversal.applyStrategies();
+        assertEquals(1, traversal.getSteps().size());
+        assertEquals(OrientGraphIndexValuesStep.class, traversal.getStartStep().getClass());
+        assertEquals(Arrays.asList(0, 1, 2, 3), traversal.toList());
+
+        assertEquals(Arrays.asList(0, 0, 0, 1, 1, 1, 2, 2, 3, 3), g.V().hasLabel("user").values("age").toList());
+        assertEquals(Arrays.asList(2, 2, 3, 3), g.V().hasLabel("user").has("age", P.gte(2)).values("age").toList());
+        assertEquals(Long.valueOf(6), g.V().hasLabel("user").has("age", P.outside(1, 2)).values("age").count().next());
+    }
+
+    @Test
+    public void shouldGroupCountWithoutPassingElements() {
+        OrientGraph graph = new OrientGraphFactory(URL + "-groupcount", "root", "root").getNoTx();
+        String className = graph.createVertexClass("order");
+        OClass cls = graph.getRawDatabase().getMetadata().getSchema().getClass(className);
+        cls.createProperty("status", OType.STRING);
+        cls.createIndex(className + ".status", OClass.INDEX_TYPE.NOTUNIQUE, "status");
+        for (int i = 0; i < 10; i++)
+            graph.addVertex(T.label, "order", "status", i % 3 == 0 ? "open" : "closed", "amount", i % 2);
+        graph.addVertex(T.label, "customer", "amount", 1);
+        GraphTraversalSource g = graph.traversal();
+
+        GraphTraversal.Admin<Vertex, Map<Object, Long>> traversal = g.V().groupCount().by(T.label).asAdmin();
+        traversal.applyStrategies();
+        assertEquals(1, traversal.getSteps().size());
+        assertEquals(OrientGraphGroupCountStep.class, traversal.getStartStep().getClass());
+        Map<Object, Long> expected = new HashMap<>();
+        expected.put("order", 10L);
+        expected.put("customer", 1L);
+        assertEquals(expected, traversal.next());
+
+        expected.clear();
+        expected.put("open", 4L);
+        expected.put("closed", 6L);
+        assertEquals(expected, g.V().hasLabel("order").groupCount().by("status").next());
+        assertEquals(expected, g.V().hasLabel("order").group().by("status").by(__.count()).next());
+
+        // counted cluster by cluster
+        expected.clear();
+        expected.put("order", 5L);
+        expected.put("customer", 1L);
+        assertEquals(expected, g.V().has("amount", 1).groupCount().by(T.label).next());
+        expected.clear();
+        expected.put(0, 5L);
+        expected.put(1, 5L);
+        assertEquals(expected, g.V().hasLabel("order").groupCount().by("amount").next());
+        assertEquals(Collections.emptyMap(), g.V().hasLabel("unknown").groupCount().by(T.label).next());
+    }
+
+    @Test
+    public void shouldGroupCountClustersInParallel() {
+        OrientGraphFactory factory = new OrientGraphFactory(URL + "-parallelscans", "root", "root").setupPool(1, 5).setParallelScans(true);
+        OrientGraph graph = factory.getNoTx();
+        for (int i = 0; i < 3000; i++)
+            graph.addVertex(T.label, "order", "amount", i % 3);
+        GraphTraversalSource g = graph.traversal();
+
+        Map<Object, Long> expected = new HashMap<>();
+        expected.put(0, 1000L);
+        expected.put(1, 1000L);
+        expected.put(2, 1000L);
+        assertEquals(expected, g.V().hasLabel("order").groupCount().by("amount").next());
+        // the clusters are read on other connections, the current one stays active
+        assertSame(graph.getRawDatabase(), ODatabaseRecordThreadLocal.INSTANCE.get());
+        assertEquals(Long.valueOf(3000), g.V().hasLabel("order").count().next());
+        factory.close();
+    }
+
+    @Test
+    public void shouldGroupCountClustersInParallelLikeSequentially() {
+        OrientGraphFactory factory = new OrientGraphFactory(URL + "-parallelclusters", "root", "root").setupPool(1, 5).setParallelScans(true);
+        OrientGraph graph = factory.getNoTx();
+        OClass itemClass = graph.getRawDatabase().getMetadata().getSchema().getClass(graph.createVertexClass("item"));
+        for (int i = 0; i < 3; i++)
+            itemClass.addCluster("item_extra_" + i);
+        assertTrue(itemClass.getClusterIds().length > 1);
+        for (int i = 0; i < 2000; i++)
+            graph.addVertex(T.label, "item", "kind", "k" + (i % 7), "weight", i % 5);
+        GraphTraversalSource g = graph.traversal();
+
+        Map<Object, Long> sequential = g.V().hasLabel("item").has("weight", P.gt(1)).toList().stream()
+                .collect(Collectors.groupingBy(v -> v.value("kind"), Collectors.counting()));
+        assertEquals(sequential, g.V().hasLabel("item").has("weight", P.gt(1)).groupCount().by("kind").next());
+        assertEquals(Long.valueOf(1200), sequential.values().stream().reduce(0L, Long::sum));
+        factory.close();
+    }
+
+    @Test
+    public void shouldFoldEdgeFiltersIntoVertexStep() {
+        OrientGraph graph = new OrientGraphFactory(URL + "-vertexstep", "root", "root").getNoTx();
+        Vertex marko = graph.addVertex(T.label, "person", "name", "marko");
+        Vertex vadas = graph.addVertex(T.label, "person", "name", "vadas");
+        Vertex josh = graph.addVertex(T.label, "person", "name", "josh");
+        marko.addEdge("knows", vadas, "since", 2005);
+        marko.addEdge("knows", josh, "since", 2012);
+        josh.addEdge("knows", marko, "since", 2015);
+        GraphTraversalSource g = graph.traversal();
+
+        GraphTraversal.Admin<Vertex, Object> traversal = g.V(marko.id()).outE("knows").has("since", P.gt(2010)).inV().values("name").asAdmin();
+        traversal.applyStrategies();
+        assertEquals(1, TraversalHelper.getStepsOfClass(OrientVertexStep.class, traversal).size());
+        assertEquals(0, TraversalHelper.getStepsOfClass(HasStep.class, traversal).size());
+        assertEquals(Arrays.asList("josh"), traversal.toList());
+
+        assertEquals(Arrays.asList("josh"), g.V(marko.id()).inE("knows").has("since", P.gt(2010)).outV().values("name").toList());
+        assertEquals(Arrays.asList("josh", "josh"), g.V(marko.id()).bothE("knows").has("since", P.gt(2010)).otherV().values("name").toList());
+        assertEquals(Arrays.asList(2012), g.V(marko.id()).outE("knows").has("since", P.gt(2010)).values("since").toList());
+        // the edges are needed for the path
+        assertEquals(3, g.V(marko.id()).outE("knows").has("since", P.gt(2010)).inV().path().next().size());
+    }
+
+    @Test
+    public void shouldBatchAdjacentVertices() {
+        OrientGraph graph = new OrientGraphFactory(URL + "-batch", "root", "root").setVertexStepBatchSize(2).getNoTx();
+        Vertex marko = graph.addVertex(T.label, "person", "name", "marko");
+        Vertex vadas = graph.addVertex(T.label, "person", "name", "vadas");
+        Vertex josh = graph.addVertex(T.label, "person", "name", "josh");
+        Vertex lop = graph.addVertex(T.label, "software", "name", "lop");
+        marko.addEdge("knows", vadas);
+        marko.addEdge("knows", josh);
+        marko.addEdge("created", lop);
+        josh.addEdge("created", lop);
+        vadas.addEdge("knows", vadas);
+        GraphTraversalSource g = graph.traversal();
+
+        GraphTraversal.Admin<Vertex, Object> traversal = g.V(marko.id()).out("knows").out().values("name").asAdmin();
+        traversal.applyStrategies();
+        assertEquals(2, TraversalHelper.getStepsOfClass(OrientBatchVertexStep.class, traversal).size());
+        assertEquals(Arrays.asList("lop", "vadas"), traversal.toList().stream().sorted().collect(Collectors.toList()));
+
+        assertEquals(Arrays.asList("josh", "marko"), g.V(lop.id()).in("created").values("name").toList().stream().sorted().collect(Collectors.toList()));
+        assertEquals(Arrays.asList("marko", "vadas", "vadas"), g.V(vadas.id()).both().values("name").toList().stream().sorted().collect(Collectors.toList()));
+        assertEquals(Long.valueOf(5), g.V().out().values("name").count().next());
+    }
+
+    @Test
+    public void shouldCountEdgesFromEdgeBags() {
+        OrientGraph graph = new OrientGraphFactory(URL + "-degree", "root", "root").getNoTx();
+        Vertex marko = graph.addVertex(T.label, "person", "name", "marko");
+        Vertex vadas = graph.addVertex(T.label, "person", "name", "vadas");
+        Vertex josh = graph.addVertex(T.label, "person", "name", "josh");
+        marko.addEdge("knows", vadas);
+        marko.addEdge("knows", josh);
+        marko.addEdge("follows", josh);
+        josh.addEdge("follows", josh);
+        GraphTraversalSource g = graph.traversal();
+
+        GraphTraversal.Admin<Vertex, Long> traversal = g.V(marko.id()).out("knows").count().asAdmin();
+        traversal.applyStrategies();
+        assertEquals(1, TraversalHelper.getStepsOfClass(OrientVertexDegreeStep.class, traversal).size());
+        assertEquals(Long.valueOf(2), traversal.next());
+
+        assertEquals(Long.valueOf(3), g.V(marko.id()).outE().count().next());
+        assertEquals(Long.valueOf(3), g.V(josh.id()).both("follows").count().next());
+        assertEquals(Long.valueOf(4), g.V().out().count().next());
+        assertEquals(Arrays.asList("marko"), g.V().where(__.outE("knows")).values("name").toList());
+        assertEquals(Arrays.asList("marko"), g.V().not(__.inE()).values("name").toList());
+        assertEquals(Arrays.asList("josh"), g.V().where(__.in().count().is(P.gt(1))).values("name").toList());
+
+        // the adjacent elements are kept if the traversal needs the path
+        GraphTraversal.Admin<Vertex, Path> pathTraversal = g.V().where(__.out()).path().asAdmin();
+        pathTraversal.applyStrategies();
+        assertEquals(0, TraversalHelper.getStepsOfClass(OrientVertexDegreeStep.class, pathTraversal).size());
+        assertEquals(new HashSet<>(Arrays.asList(marko, josh)), pathTraversal.toStream().map(path -> path.get(0)).collect(Collectors.toSet()));
+
+        pathTraversal = g.V().not(__.outE("knows")).path().asAdmin();
+        pathTraversal.applyStrategies();
+        assertEquals(0, TraversalHelper.getStepsOfClass(OrientVertexDegreeStep.class, pathTraversal).size());
+        assertEquals(new HashSet<>(Arrays.asList(vadas, josh)), pathTraversal.toStream().map(path -> path.get(0)).collect(Collectors.toSet()));
+        assertEquals(Long.valueOf(2), g.V().not(__.outE("knows")).path().count().next());
+    }
 }
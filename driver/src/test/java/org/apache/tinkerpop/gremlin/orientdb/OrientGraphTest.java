@@ -1,31 +1,42 @@
 package org.apache.tinkerpop.gremlin.orientdb;
 
+import com.google.common.primitives.Longs;
 import com.orientechnologies.orient.core.Orient;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OSchema;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
 import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.structure.Transaction;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.VertexProperty;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static java.util.stream.Collectors.toMap;
 import static org.apache.tinkerpop.gremlin.structure.Transaction.CLOSE_BEHAVIOR.COMMIT;
 import static org.apache.tinkerpop.gremlin.structure.Transaction.CLOSE_BEHAVIOR.ROLLBACK;
 import static org.apache.tinkerpop.gremlin.structure.VertexProperty.Cardinality.single;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -235,6 +246,138 @@ public class OrientGraphTest {
         }
     }
 
+    @Test
+    public void testVerticesByIdsKeepOrder() throws Exception {
+        try (Graph graph = graphFactory().getNoTx()) {
+            Vertex v1 = graph.addVertex();
+            Vertex v2 = graph.addVertex();
+            Vertex v3 = graph.addVertex();
+            graph.vertices(v2.id()).next().remove();
+
+            List<Vertex> vertices = newArrayList(graph.vertices(v3.id(), v1.id(), v2.id(), v3.id()));
+            assertEquals(newArrayList(v3, v1, v3), vertices);
+
+            try {
+                graph.vertices("#1000:0").next();
+                Assert.fail("must throw for an unknown cluster");
+            } catch (NoSuchElementException e) {
+            }
+        }
+    }
+
+    @Test
+    public void testVerticesByIdsInSeveralBatches() throws Exception {
+        try (Graph graph = graphFactory().getNoTx()) {
+            List<Object> ids = new ArrayList<>();
+            for (int i = 0; i < OrientGraph.MULTI_GET_BATCH_SIZE * 2 + 1; i++)
+                ids.add(0, graph.addVertex().id());
+
+            Iterator<Vertex> vertices = graph.vertices(ids.toArray());
+            for (Object id : ids)
+                assertEquals(id, vertices.next().id());
+            assertFalse(vertices.hasNext());
+        }
+    }
+
+    @Test
+    public void testVerticesByDuplicateIdsInSeveralBatches() throws Exception {
+        try (Graph graph = graphFactory().getNoTx()) {
+            List<Object> vertexIds = new ArrayList<>();
+            for (int i = 0; i < 1200; i++)
+                vertexIds.add(graph.addVertex().id());
+            // every id is requested two or three times, in different batches
+            List<Object> ids = new ArrayList<>();
+            for (int i = 0; i < OrientGraph.MULTI_GET_BATCH_SIZE * 3; i++)
+                ids.add(vertexIds.get((i * 7) % vertexIds.size()));
+
+            Iterator<Vertex> vertices = graph.vertices(ids.toArray());
+            for (Object id : ids)
+                assertEquals(id, vertices.next().id());
+            assertFalse(vertices.hasNext());
+        }
+    }
+
+    @Test
+    public void testLightweightEdges() throws Exception {
+        try (OrientGraph graph = graphFactory().setLightweightEdgeLabels("knows").getNoTx()) {
+            Vertex v1 = graph.addVertex(T.label, "person");
+            Vertex v2 = graph.addVertex(T.label, "person");
+            Edge knows = v1.addEdge("knows", v2);
+            Edge since = v1.addEdge("knows", v2, "since", 2010);
+            Edge created = v1.addEdge("created", v2);
+
+            assertTrue(((OrientEdge) knows).isLightweight());
+            assertFalse(((OrientEdge) since).isLightweight());
+            assertFalse(((OrientEdge) created).isLightweight());
+            assertEquals("knows", knows.label());
+            assertEquals(Long.valueOf(3), graph.traversal().E().count().next());
+
+            assertEquals(newArrayList(v2, v2), newArrayList(v1.vertices(Direction.OUT, "knows")));
+            assertEquals(newArrayList(v1, v1), newArrayList(v2.vertices(Direction.IN, "knows")));
+            List<Edge> edges = newArrayList(v1.edges(Direction.OUT, "knows"));
+            assertThat(edges, hasSize(2));
+            assertTrue(edges.contains(knows));
+            assertEquals(v2, knows.inVertex());
+            assertEquals(v1, knows.outVertex());
+            assertFalse(knows.properties().hasNext());
+
+            try {
+                knows.property("since", 2012);
+                Assert.fail("lightweight edges can't have properties");
+            } catch (UnsupportedOperationException e) {
+            }
+
+            knows.remove();
+            assertEquals(newArrayList(v2), newArrayList(v1.vertices(Direction.OUT, "knows")));
+            assertEquals(newArrayList(v1), newArrayList(v2.vertices(Direction.IN, "knows")));
+            assertFalse(graph.edges(knows.id()).hasNext());
+        }
+    }
+
+    @Test
+    public void lightweightEdgesAreScannedInTheClassesThatHaveThem() throws Exception {
+        try (OrientGraph graph = graphFactory().setLightweightEdgeLabels("knows").getNoTx()) {
+            Vertex person = graph.addVertex(T.label, "person");
+            Vertex robot = graph.addVertex(T.label, "robot");
+            Vertex software = graph.addVertex(T.label, "software");
+            person.addEdge("knows", robot);
+            robot.addEdge("knows", person);
+            person.addEdge("knows", software);
+
+            OSchema schema = graph.getRawDatabase().getMetadata().getSchema();
+            assertNotNull(schema.getClass(graph.labelToClassName("person", OClass.VERTEX_CLASS_NAME)).getProperty("out_knows"));
+            assertNotNull(schema.getClass(graph.labelToClassName("robot", OClass.VERTEX_CLASS_NAME)).getProperty("out_knows"));
+            assertNull(schema.getClass(graph.labelToClassName("software", OClass.VERTEX_CLASS_NAME)).getProperty("out_knows"));
+
+            assertEquals(Long.valueOf(3), graph.traversal().E().hasLabel("knows").count().next());
+            assertEquals(Long.valueOf(1), graph.traversal().E().hasLabel("knows").inV().hasLabel("software").count().next());
+        }
+    }
+
+    @Test
+    public void lightweightEdgesByIdAndInE() throws Exception {
+        try (OrientGraph graph = graphFactory().setLightweightEdgeLabels("knows").getNoTx()) {
+            Vertex v1 = graph.addVertex(T.label, "person");
+            Vertex v2 = graph.addVertex(T.label, "person");
+            Edge knows = v1.addEdge("knows", v2);
+            Edge since = v1.addEdge("knows", v2, "since", 2010);
+            Edge created = v1.addEdge("created", v2);
+
+            assertEquals(newArrayList(knows), newArrayList(graph.edges(knows.id())));
+            assertEquals(newArrayList(knows), newArrayList(graph.edges(knows.id().toString())));
+            assertEquals(newArrayList(knows, created), newArrayList(graph.edges(knows, created.id())));
+            assertEquals(newArrayList(knows), graph.traversal().E(knows.id()).toList());
+            assertEquals(v2, graph.traversal().E(knows).inV().next());
+
+            assertThat(newArrayList(graph.edges()), containsInAnyOrder(knows, since, created));
+            assertThat(graph.traversal().E().toList(), containsInAnyOrder(knows, since, created));
+            assertThat(graph.traversal().E().hasLabel("knows").toList(), containsInAnyOrder(knows, since));
+            assertEquals(Long.valueOf(2), graph.traversal().E().hasLabel("knows").count().next());
+            assertEquals(newArrayList(since), graph.traversal().E().has("since", 2010).toList());
+            assertEquals(Long.valueOf(2), graph.traversal().E().groupCount().by(T.label).next().get("knows"));
+        }
+    }
+
     @Test
     public void testMetaProperties() throws Exception {
         try (Graph graph = graphFactory().getTx()) {
@@ -285,6 +428,121 @@ public class OrientGraphTest {
         }
     }
 
+    @Test
+    public void removeVertexWithManyEdges() throws Exception {
+        try (OrientGraph graph = graphFactory().getNoTx()) {
+            Vertex v1 = graph.addVertex();
+            List<Vertex> others = newArrayList();
+            // enough edges to turn the embedded edge bags into tree bags
+            for (int i = 0; i < 100; i++) {
+                Vertex other = graph.addVertex();
+                v1.addEdge("label1", other);
+                other.addEdge("label2", v1);
+                others.add(other);
+            }
+            v1.addEdge("label1", v1);
+            v1.addEdge("label2", v1);
+
+            v1.remove();
+
+            assertEquals(Long.valueOf(0), graph.traversal().E().count().next());
+            assertEquals(Long.valueOf(100), graph.traversal().V().count().next());
+            for (Vertex other : others)
+                assertFalse(other.edges(Direction.BOTH).hasNext());
+        }
+    }
+
+    @Test
+    public void neighborRids() throws Exception {
+        try (OrientGraph graph = graphFactory().setLightweightEdgeLabels("knows").getNoTx()) {
+            OrientVertex v1 = (OrientVertex) graph.addVertex();
+            OrientVertex v2 = (OrientVertex) graph.addVertex();
+            OrientVertex v3 = (OrientVertex) graph.addVertex();
+            v1.addEdge("knows", v2);
+            v1.addEdge("created", v3, "weight", 0.5);
+            v3.addEdge("created", v1);
+
+            long rid2 = OrientGraphUtils.packRid(v2.id());
+            long rid3 = OrientGraphUtils.packRid(v3.id());
+            assertEquals(newArrayList(rid2), Longs.asList(v1.neighborRids(Direction.OUT, "knows")));
+            assertEquals(newArrayList(rid3), Longs.asList(v1.neighborRids(Direction.OUT, "created")));
+            assertThat(Longs.asList(v1.neighborRids(Direction.OUT)), containsInAnyOrder(rid2, rid3));
+            assertThat(Longs.asList(v1.neighborRids(Direction.BOTH, "created")), contains(rid3, rid3));
+            assertEquals(0, v2.neighborRids(Direction.OUT).length);
+        }
+    }
+
+    @Test
+    public void elementsOfIdAreLoadedLazily() throws Exception {
+        try (OrientGraph graph = graphFactory().getNoTx()) {
+            Vertex v1 = graph.addVertex(T.label, "person");
+            Vertex v2 = graph.addVertex(T.label, "person", "name", "marko");
+            Edge edge = v1.addEdge("knows", v2, "since", 2010);
+
+            OrientEdge lazyEdge = new OrientEdge(graph, edge.id());
+            OrientVertex lazyVertex = new OrientVertex(graph, v2.id());
+            assertEquals("knows", lazyEdge.label());
+            assertEquals("person", lazyVertex.label());
+            assertFalse(lazyEdge.getRawElement() instanceof ODocument);
+            assertFalse(lazyVertex.getRawElement() instanceof ODocument);
+
+            assertEquals(edge, lazyEdge);
+            assertEquals(v2, lazyEdge.inVertex());
+            assertEquals(Integer.valueOf(2010), lazyEdge.value("since"));
+            assertEquals("marko", lazyVertex.value("name"));
+        }
+    }
+
+    @Test
+    public void propertiesSkipInternalFields() throws Exception {
+        try (OrientGraph graph = graphFactory().getNoTx()) {
+            Vertex v1 = graph.addVertex(T.label, "person", "name", "marko", "age", 29);
+            Vertex v2 = graph.addVertex(T.label, "person");
+            v1.addEdge("knows", v2);
+
+            assertEquals("marko", v1.value("name"));
+            assertThat(newArrayList(v1.properties("name", "name")), hasSize(1));
+            assertThat(newArrayList(v1.properties("name", "age", "unknown")), hasSize(2));
+            assertThat(newArrayList(v1.properties("out_knows")), hasSize(0));
+            assertThat(newArrayList(v1.keys()), containsInAnyOrder("name", "age"));
+        }
+    }
+
+    @Test
+    public void propertiesOfLinksAndTypedFields() throws Exception {
+        try (OrientGraph graph = graphFactory().getNoTx()) {
+            String className = graph.createVertexClass("person");
+            OClass cls = graph.getRawDatabase().getMetadata().getSchema().getClass(className);
+            cls.createProperty("friend", OType.LINK);
+            cls.createProperty("age", OType.LONG);
+            Vertex v2 = graph.addVertex(T.label, "person");
+            Vertex v1 = graph.addVertex(T.label, "person", "friend", v2.id(), "age", 29);
+
+            Vertex vertex = graph.vertices(v1.id()).next();
+            Object friend = vertex.value("friend");
+            assertTrue(friend instanceof ODocument);
+            assertEquals(v2.id(), ((ODocument) friend).getIdentity());
+            assertEquals(29L, (Object) vertex.value("age"));
+            assertEquals(29L, newArrayList(vertex.properties("age", "friend")).get(0).value());
+        }
+    }
+
+    @Test
+    public void adjacentElementsOfEncodedLabel() throws Exception {
+        try (Graph graph = graphFactory().getTx()) {
+            Vertex v1 = graph.addVertex();
+            Vertex v2 = graph.addVertex();
+            v1.addEdge("has friend", v2);
+            v1.addEdge("label1", v2);
+
+            assertThat(newArrayList(v1.vertices(Direction.OUT, "has friend")), hasSize(1));
+            assertThat(newArrayList(v2.vertices(Direction.IN, "has friend")), hasSize(1));
+            assertThat(newArrayList(v2.edges(Direction.IN, "has friend", "has friend")), hasSize(1));
+            assertThat(newArrayList(v2.edges(Direction.BOTH, "has friend", "label1")), hasSize(2));
+            assertThat(newArrayList(v2.edges(Direction.OUT, "has friend")), hasSize(0));
+        }
+    }
+
     @Test
     public void checkClassNameConstruction() {
         String edgeLabel = "edge_label";
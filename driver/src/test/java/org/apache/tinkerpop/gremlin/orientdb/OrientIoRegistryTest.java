@@ -1,6 +1,7 @@
 package org.apache.tinkerpop.gremlin.orientdb;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertThat;
 
 import java.io.StringWriter;
@@ -55,6 +56,25 @@ public class OrientIoRegistryTest {
         assertThat(result, equalTo("{\"clusterId\":32767,\"clusterPosition\":9223372036854775807}"));
     }
 
+    @Test
+    public void serializeLightweightEdgeIds() throws Exception {
+        OrientEdge.LightweightId id1 = new OrientEdge.LightweightId(new ORecordId(9, 1), new ORecordId(9, 2), "knows");
+        OrientEdge.LightweightId id2 = new OrientEdge.LightweightId(new ORecordId(9, 2), new ORecordId(9, 1), "knows");
+
+        StringWriter sw = new StringWriter();
+        objectMapper.writeValue(sw, id1);
+        assertThat(sw.toString(), equalTo("{\"lightweightEdge\":\"#9:1-knows->#9:2\"}"));
+        assertThat(objectMapper.readValue(sw.toString(), Object.class), equalTo(id1));
+
+        sw = new StringWriter();
+        objectMapper.writeValue(sw, id2);
+        assertThat(sw.toString(), equalTo("{\"lightweightEdge\":\"#9:2-knows->#9:1\"}"));
+
+        assertNotEquals(id1, id2);
+        assertNotEquals(new ORecordId(-1, -1), id1);
+        assertNotEquals(id1, new ORecordId(id1.getClusterId(), id1.getClusterPosition()));
+    }
+
     @Test
     public void serializeVertex() throws Exception {
         OrientGraph graph = new OrientGraphFactory("memory:serializer", "root", "root").getNoTx();
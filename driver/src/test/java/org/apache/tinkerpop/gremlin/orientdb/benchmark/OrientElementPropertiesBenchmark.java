@@ -0,0 +1,83 @@
+package org.apache.tinkerpop.gremlin.orientdb.benchmark;
+
+import org.apache.tinkerpop.gremlin.orientdb.OrientGraph;
+import org.apache.tinkerpop.gremlin.orientdb.OrientGraphFactory;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the properties of a vertex with a few properties and many edges,
+ * one by key (as <code>values("name")</code> does) and all of them. Not run
+ * with the tests, start it with {@link #main(String[])}; run it with
+ * <code>-prof gc</code> to see the allocations per property access.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class OrientElementPropertiesBenchmark {
+
+    @Param({ "10", "10000" })
+    public int degree;
+
+    private OrientGraphFactory factory;
+    private OrientGraph graph;
+    private Vertex vertex;
+
+    @Setup
+    public void setup() {
+        factory = new OrientGraphFactory("memory:properties-" + Math.random());
+        graph = factory.getNoTx();
+        vertex = graph.addVertex("person");
+        for (int i = 0; i < 20; i++)
+            vertex.property("key" + i, i);
+        vertex.property("name", "marko");
+        for (int i = 0; i < degree; i++) {
+            vertex.addEdge("knows", graph.addVertex("person"));
+            graph.addVertex("person").addEdge("knows", vertex);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        graph.drop();
+        factory.close();
+    }
+
+    @Benchmark
+    public Object valueByKey() {
+        return vertex.properties("name").next().value();
+    }
+
+    @Benchmark
+    public void allProperties(final Blackhole blackhole) {
+        Iterator<VertexProperty<Object>> properties = vertex.properties();
+        while (properties.hasNext())
+            blackhole.consume(properties.next().value());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(OrientElementPropertiesBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,82 @@
+package org.apache.tinkerpop.gremlin.orientdb.benchmark;
+
+import org.apache.tinkerpop.gremlin.orientdb.OrientGraph;
+import org.apache.tinkerpop.gremlin.orientdb.OrientGraphFactory;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Walks the adjacent vertices of a high-degree vertex, once through
+ * {@link Vertex#vertices(Direction, String...)} and once through the edges
+ * and {@link Edge#inVertex()}, which looks up every vertex with
+ * {@link OrientGraph#vertices(Object...)}. Not run with the tests, start it
+ * with {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class OrientVertexAdjacencyBenchmark {
+
+    @Param({ "1000", "100000" })
+    public int degree;
+
+    private OrientGraphFactory factory;
+    private OrientGraph graph;
+    private Vertex supernode;
+
+    @Setup
+    public void setup() {
+        factory = new OrientGraphFactory("memory:adjacency-" + Math.random());
+        graph = factory.getNoTx();
+        supernode = graph.addVertex("person");
+        for (int i = 0; i < degree; i++)
+            supernode.addEdge("knows", graph.addVertex("person"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        graph.drop();
+        factory.close();
+    }
+
+    @Benchmark
+    public void vertices(final Blackhole blackhole) {
+        Iterator<Vertex> vertices = supernode.vertices(Direction.OUT, "knows");
+        while (vertices.hasNext())
+            blackhole.consume(vertices.next().id());
+    }
+
+    @Benchmark
+    public void edgesThenInVertex(final Blackhole blackhole) {
+        Iterator<Edge> edges = supernode.edges(Direction.OUT, "knows");
+        while (edges.hasNext())
+            blackhole.consume(edges.next().inVertex().id());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(OrientVertexAdjacencyBenchmark.class.getSimpleName()).build()).run();
+    }
+}